@@ -7,11 +7,14 @@ import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -25,11 +28,13 @@ public class BookingController {
 	public ResponseEntity<Object> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
 			@RequestParam(name = "state", defaultValue = "all") String stateParam,
 			@PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-			@Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+			@Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+			@RequestParam(name = "cursor", required = false) String cursor) {
 		BookingState state = BookingState.from(stateParam)
 				.orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-		log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-		return bookingClient.getBookings(userId, state, from, size);
+		log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}", stateParam, userId, from, size,
+				cursor);
+		return bookingClient.getBookings(userId, state, from, size, cursor);
 	}
 
 	@GetMapping("/owner")
@@ -38,11 +43,13 @@ public class BookingController {
 											  @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
 															   Integer from,
 											  @Positive @RequestParam(name = "size", defaultValue = "10")
-															   Integer size) {
+															   Integer size,
+											  @RequestParam(name = "cursor", required = false) String cursor) {
 		BookingState state = BookingState.from(stateParam)
 				.orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-		log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-		return bookingClient.getBookingsByItemOwnerId(userId, state, from, size);
+		log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}", stateParam, userId, from, size,
+				cursor);
+		return bookingClient.getBookingsByItemOwnerId(userId, state, from, size, cursor);
 	}
 
 	@PostMapping
@@ -52,6 +59,13 @@ public class BookingController {
 		return bookingClient.bookItem(userId, requestDto);
 	}
 
+	@PostMapping("/batch")
+	public ResponseEntity<Object> bookItems(@RequestHeader("X-Sharer-User-Id") long userId,
+			@RequestBody @Size(min = 1, max = 500) List<@Valid BookItemRequestDto> requestDtos) {
+		log.info("Creating {} bookings in batch, userId={}", requestDtos.size(), userId);
+		return bookingClient.bookItems(userId, requestDtos);
+	}
+
 	@GetMapping("/{bookingId}")
 	public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
 			@PathVariable Long bookingId) {
@@ -67,6 +81,13 @@ public class BookingController {
 		return bookingClient.approveBook(userId, bookingId, approved);
 	}
 
+	@PatchMapping("/owner/decisions")
+	public ResponseEntity<Object> decide(@RequestHeader("X-Sharer-User-Id") long userId,
+			@RequestBody @Size(min = 1, max = 500) List<@Valid BookingDecisionDto> decisions) {
+		log.info("Applying {} booking decisions, userId={}", decisions.size(), userId);
+		return bookingClient.decide(userId, decisions);
+	}
+
 	@DeleteMapping("/{id}")
 	public void deleteById(@PathVariable long id) {
 		bookingClient.deleteById(id);
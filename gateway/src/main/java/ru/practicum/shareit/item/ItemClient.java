@@ -11,6 +11,7 @@ import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @Service
@@ -28,7 +29,14 @@ public class ItemClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> getAll(long userId, Integer from, Integer size) {
+    public ResponseEntity<Object> getAll(long userId, Integer from, Integer size, String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "size", size,
+                    "cursor", cursor
+            );
+            return get("?size={size}&cursor={cursor}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -48,15 +56,53 @@ public class ItemClient extends BaseClient {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
 
+    public ResponseEntity<Object> getComments(long itemId, Integer size, String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "size", size,
+                    "cursor", cursor
+            );
+            return get("/" + itemId + "/comments?size={size}&cursor={cursor}", parameters);
+        }
+        Map<String, Object> parameters = Map.of(
+                "size", size
+        );
+        return get("/" + itemId + "/comments?size={size}", parameters);
+    }
+
     public ResponseEntity<Object> getItem(long itemId, long userId) {
         return get("/" + itemId, userId);
     }
 
+    public ResponseEntity<Object> getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from.toString(),
+                "to", to.toString()
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", parameters);
+    }
+
     public void deleteById(long itemId) {
         delete("/" + itemId);
     }
 
-    public ResponseEntity<Object> searchItem(String text, Integer from, Integer size) {
+    public ResponseEntity<Object> suggest(String prefix, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "size", size
+        );
+        return get("/suggest?prefix={prefix}&size={size}", parameters);
+    }
+
+    public ResponseEntity<Object> searchItem(String text, Integer from, Integer size, String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "text", text,
+                    "size", size,
+                    "cursor", cursor
+            );
+            return get("/search?text={text}&size={size}&cursor={cursor}", parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -11,6 +12,7 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.Positive;
+import java.time.LocalDateTime;
 
 /**
  * // TODO .
@@ -28,8 +30,9 @@ public class ItemController {
     @GetMapping
     public ResponseEntity<Object> findAll(@RequestHeader("X-Sharer-User-Id") long userId,
                                           @RequestParam(defaultValue = "0") @Min(0) int from,
-                                          @RequestParam(defaultValue = "20") @Positive int size) {
-        return itemClient.getAll(userId, from, size);
+                                          @RequestParam(defaultValue = "20") @Positive int size,
+                                          @RequestParam(required = false) String cursor) {
+        return itemClient.getAll(userId, from, size, cursor);
     }
 
     @PostMapping
@@ -58,6 +61,27 @@ public class ItemController {
         return itemClient.saveComment(userId, itemId, commentDto);
     }
 
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> findComments(@PathVariable long itemId,
+                                               @RequestParam(defaultValue = "20") @Positive int size,
+                                               @RequestParam(required = false) String cursor) {
+        log.info("Get comments item id={}, size={}, cursor={}", itemId, size, cursor);
+        return itemClient.getComments(itemId, size, cursor);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> findAvailability(@PathVariable long itemId,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                   LocalDateTime from,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                   LocalDateTime to) {
+        log.info("Get availability item id={}, from={}, to={}", itemId, from, to);
+        if (!to.isAfter(from)) {
+            throw new IllegalArgumentException("Incorrect end time");
+        }
+        return itemClient.getAvailability(itemId, from, to);
+    }
+
     @GetMapping("/{itemId}")
     public ResponseEntity<Object> findItemById(@PathVariable long itemId,
                                                @RequestHeader("X-Sharer-User-Id") long userId) {
@@ -71,11 +95,18 @@ public class ItemController {
         itemClient.deleteById(id);
     }
 
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggest(@RequestParam String prefix,
+                                          @RequestParam(defaultValue = "10") @Positive int size) {
+        return itemClient.suggest(prefix, size);
+    }
+
     @GetMapping("/search")
     public ResponseEntity<Object> findItemByText(@RequestParam String text,
                                                  @RequestParam(defaultValue = "0") @Min(0) int from,
-                                                 @RequestParam(defaultValue = "20") @Positive int size) {
+                                                 @RequestParam(defaultValue = "20") @Positive int size,
+                                                 @RequestParam(required = false) String cursor) {
         log.info("Get search item text={}", text);
-        return itemClient.searchItem(text, from, size);
+        return itemClient.searchItem(text, from, size, cursor);
     }
 }
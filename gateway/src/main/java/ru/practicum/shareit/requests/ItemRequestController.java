@@ -40,8 +40,9 @@ public class ItemRequestController {
     @GetMapping("/all")
     public ResponseEntity<Object> findByRequestId(@RequestHeader("X-Sharer-User-Id") long userId,
                                                   @RequestParam(defaultValue = "0") @Min(0) int from,
-                                                  @RequestParam(defaultValue = "20") @Positive int size) {
-        return itemRequestClient.getAll(userId, from, size);
+                                                  @RequestParam(defaultValue = "20") @Positive int size,
+                                                  @RequestParam(required = false) String cursor) {
+        return itemRequestClient.getAll(userId, from, size, cursor);
     }
 
     @GetMapping("/{requestId}")
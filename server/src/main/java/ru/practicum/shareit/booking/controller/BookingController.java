@@ -3,10 +3,17 @@ package ru.practicum.shareit.booking.controller;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoShort;
 import ru.practicum.shareit.booking.dto.BookingDtoSimple;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.pagination.CursorKind;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 
 /**
@@ -25,19 +32,35 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> findAll(@RequestHeader("X-Sharer-User-Id") long userId,
+    public List<BookingDtoShort> findAll(@RequestHeader("X-Sharer-User-Id") long userId,
                                     @RequestParam(defaultValue = "ALL") String state,
                                     @RequestParam(defaultValue = "0") int from,
-                                    @RequestParam(defaultValue = "20") int size) {
-        return bookingService.findAll(userId, state, from, size);
+                                    @RequestParam(defaultValue = "20") int size,
+                                    @RequestParam(required = false) String cursor,
+                                    HttpServletResponse response) {
+        if (cursor == null) {
+            return bookingService.findAll(userId, state, from, size);
+        }
+        List<BookingDtoShort> bookings = bookingService.findAll(userId, state,
+                PageCursor.decode(cursor, CursorKind.BOOKINGS), size);
+        setNextCursor(response, bookings, size);
+        return bookings;
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> findAllByOwner(@RequestHeader("X-Sharer-User-Id") long userId,
+    public List<BookingDtoShort> findAllByOwner(@RequestHeader("X-Sharer-User-Id") long userId,
                                            @RequestParam(defaultValue = "ALL") String state,
                                            @RequestParam(defaultValue = "0") int from,
-                                           @RequestParam(defaultValue = "20") int size) {
-        return bookingService.findAllByItemOwnerId(userId, state, from, size);
+                                           @RequestParam(defaultValue = "20") int size,
+                                           @RequestParam(required = false) String cursor,
+                                           HttpServletResponse response) {
+        if (cursor == null) {
+            return bookingService.findAllByItemOwnerId(userId, state, from, size);
+        }
+        List<BookingDtoShort> bookings = bookingService
+                .findAllByItemOwnerId(userId, state, PageCursor.decode(cursor, CursorKind.BOOKINGS), size);
+        setNextCursor(response, bookings, size);
+        return bookings;
     }
 
     @PostMapping
@@ -48,6 +71,22 @@ public class BookingController {
         return bookingService.save(bookingDtoSimple, userId);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> createAll(@RequestBody List<BookingDtoSimple> bookingDtos,
+                                                @RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Получен запрос к эндпоинту: '{} {}', Бронирований в пакете: {}", "POST", "/bookings/batch",
+                bookingDtos.size());
+        return bookingService.saveAll(bookingDtos, userId);
+    }
+
+    @PatchMapping("/owner/decisions")
+    public List<BookingDecisionResultDto> decide(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                 @RequestBody List<BookingDecisionDto> decisions) {
+        log.info("Получен запрос к эндпоинту: '{} {}', Решений по бронированиям: {}", "PATCH",
+                "/bookings/owner/decisions", decisions.size());
+        return bookingService.decideAll(userId, decisions);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto approve(@RequestHeader("X-Sharer-User-Id") long userId,
                               @PathVariable long bookingId, @RequestParam Boolean approved) {
@@ -67,4 +106,12 @@ public class BookingController {
         bookingService.deleteById(id);
     }
 
+    private void setNextCursor(HttpServletResponse response, List<BookingDtoShort> bookings, int size) {
+        String nextCursor = PageCursor.next(bookings, size,
+                booking -> PageCursor.of(CursorKind.BOOKINGS, booking.getStart(), booking.getId()));
+        if (nextCursor != null) {
+            response.setHeader(PageCursor.NEXT_CURSOR_HEADER, nextCursor);
+        }
+    }
+
 }
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.enums.Status;
+
+/**
+ * Минимум полей, чтобы проверить решение владельца по бронированию или объяснить, почему оно не применилось.
+ */
+public interface BookingApprovalView {
+
+    Long getId();
+
+    Status getStatus();
+
+    Long getOwnerId();
+
+    Long getItemId();
+}
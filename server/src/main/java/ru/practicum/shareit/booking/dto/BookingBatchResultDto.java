@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Результат одной записи пакетного создания бронирований: booking при успехе,
+ * иначе код ошибки (как в ErrorResponse) и сообщение.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingBatchResultDto {
+    private int index;
+    private BookingDto booking;
+    private String error;
+    private String message;
+
+    public static BookingBatchResultDto created(int index, BookingDto booking) {
+        return new BookingBatchResultDto(index, booking, null, null);
+    }
+
+    public static BookingBatchResultDto rejected(int index, String error, String message) {
+        return new BookingBatchResultDto(index, null, error, message);
+    }
+}
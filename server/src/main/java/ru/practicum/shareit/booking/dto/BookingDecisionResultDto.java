@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.enums.Status;
+
+/**
+ * Итог решения по одному бронированию: новый статус, либо код ошибки (как в ErrorResponse) и сообщение.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingDecisionResultDto {
+    private Long bookingId;
+    private Status status;
+    private String error;
+    private String message;
+
+    public static BookingDecisionResultDto applied(long bookingId, Status status) {
+        return new BookingDecisionResultDto(bookingId, status, null, null);
+    }
+
+    public static BookingDecisionResultDto rejected(Long bookingId, String error, String message) {
+        return new BookingDecisionResultDto(bookingId, null, error, message);
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.enums.Status;
+
+import java.time.LocalDateTime;
+
+/**
+ * Бронирование в списках: от вещи только id и название, от букера только id.
+ * Поля JSON совпадают с BookingDto, но граф сущностей не сериализуется.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingDtoShort {
+    private Long id;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private ItemShort item;
+    private BookerShort booker;
+    private Status status;
+
+    /**
+     * Для проекции запроса (select new): вещь и букер приходят отдельными столбцами.
+     */
+    public BookingDtoShort(Long id, LocalDateTime start, LocalDateTime end, Status status,
+                           Long itemId, String itemName, Long bookerId) {
+        this(id, start, end, itemId == null ? null : new ItemShort(itemId, itemName),
+                bookerId == null ? null : new BookerShort(bookerId), status);
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ItemShort {
+        private Long id;
+        private String name;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class BookerShort {
+        private Long id;
+    }
+}
@@ -2,7 +2,9 @@ package ru.practicum.shareit.booking.dto;
 
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
 
 @Component
 public class BookingMapper {
@@ -17,6 +19,27 @@ public class BookingMapper {
         );
     }
 
+    public BookingDto toBookingDto(ArchivedBooking booking) {
+        return new BookingDto(booking.getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                booking.getItem(),
+                booking.getBooker(),
+                booking.getStatus()
+        );
+    }
+
+    public BookingDtoShort toBookingDtoShort(Booking booking) {
+        return new BookingDtoShort(booking.getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                booking.getStatus(),
+                booking.getItem() == null ? null : booking.getItem().getId(),
+                booking.getItem() == null ? null : booking.getItem().getName(),
+                booking.getBooker() == null ? null : booking.getBooker().getId()
+        );
+    }
+
     public Booking toBooking(BookingDto bookingDto) {
         return new Booking(bookingDto.getId(),
                 bookingDto.getStart(),
@@ -47,4 +70,28 @@ public class BookingMapper {
                 booking.getBooker().getId()
         );
     }
+
+    public BookingDtoForItem toBookingDtoForItem(ItemBookingView view) {
+        return new BookingDtoForItem(view.getId(),
+                view.getBookerId()
+        );
+    }
+
+    public BookingDtoForItem toLastBookingDtoForItem(ItemBookingSummary summary) {
+        if (summary.getLastBookingId() == null) {
+            return null;
+        }
+        return new BookingDtoForItem(summary.getLastBookingId(),
+                summary.getLastBookerId()
+        );
+    }
+
+    public BookingDtoForItem toNextBookingDtoForItem(ItemBookingSummary summary) {
+        if (summary.getNextBookingId() == null) {
+            return null;
+        }
+        return new BookingDtoForItem(summary.getNextBookingId(),
+                summary.getNextBookerId()
+        );
+    }
 }
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.dto;
+
+public interface ItemBookingView {
+
+    String LAST = "LAST";
+    String NEXT = "NEXT";
+
+    Long getItemId();
+
+    Long getId();
+
+    Long getBookerId();
+
+    String getKind();
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.booking.lock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+class ItemLockMeters {
+
+    private final Counter acquired;
+    private final Counter contended;
+    private final Timer wait;
+
+    ItemLockMeters(MeterRegistry meterRegistry, String type) {
+        this.acquired = Counter.builder("shareit.item.lock.acquired")
+                .description("Захваты блокировки вещи")
+                .tag("type", type)
+                .register(meterRegistry);
+        this.contended = Counter.builder("shareit.item.lock.contended")
+                .description("Захваты, которым пришлось ждать освобождения блокировки")
+                .tag("type", type)
+                .register(meterRegistry);
+        this.wait = Timer.builder("shareit.item.lock.wait")
+                .description("Время ожидания занятой блокировки вещи")
+                .tag("type", type)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    void acquired() {
+        acquired.increment();
+    }
+
+    void waited(long startNanos) {
+        contended.increment();
+        wait.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.lock;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Блокировка по id вещи: операции над бронированиями одной вещи выполняются по очереди,
+ * разных вещей - параллельно (с точностью до совпадения полосы блокировки).
+ */
+public interface ItemLocks {
+
+    <T> T withLock(long itemId, Supplier<T> action);
+
+    /**
+     * Держит блокировки всех вещей сразу. Захват идёт в одном порядке, поэтому два пакета
+     * с пересекающимися вещами не ждут друг друга по кругу.
+     */
+    <T> T withLocks(Collection<Long> itemIds, Supplier<T> action);
+}
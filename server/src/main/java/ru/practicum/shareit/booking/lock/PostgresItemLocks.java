@@ -0,0 +1,78 @@
+package ru.practicum.shareit.booking.lock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * pg_advisory_xact_lock в транзакции вокруг действия: блокировка общая для всех экземпляров
+ * сервера и снимается при commit/rollback.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.item-lock.mode", havingValue = "postgres", matchIfMissing = true)
+public class PostgresItemLocks implements ItemLocks {
+
+    /**
+     * Первый ключ двухключевой advisory-блокировки, отделяет блокировки вещей от других возможных.
+     */
+    private static final int ITEM_LOCK_SPACE = 1;
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ItemLockMeters meters;
+
+    @Autowired
+    public PostgresItemLocks(EntityManager entityManager, TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.meters = new ItemLockMeters(meterRegistry, "postgres");
+    }
+
+    @Override
+    public <T> T withLock(long itemId, Supplier<T> action) {
+        return transactionTemplate.execute(status -> {
+            int key = Long.hashCode(itemId);
+            Boolean locked = (Boolean) entityManager
+                    .createNativeQuery("select pg_try_advisory_xact_lock(?1, ?2)")
+                    .setParameter(1, ITEM_LOCK_SPACE)
+                    .setParameter(2, key)
+                    .getSingleResult();
+            if (!Boolean.TRUE.equals(locked)) {
+                long start = System.nanoTime();
+                entityManager.createNativeQuery("select count(*) from (select pg_advisory_xact_lock(?1, ?2)) l")
+                        .setParameter(1, ITEM_LOCK_SPACE)
+                        .setParameter(2, key)
+                        .getSingleResult();
+                meters.waited(start);
+            }
+            meters.acquired();
+            return action.get();
+        });
+    }
+
+    @Override
+    public <T> T withLocks(Collection<Long> itemIds, Supplier<T> action) {
+        String keys = itemIds.stream()
+                .map(itemId -> String.valueOf(Long.hashCode(itemId)))
+                .distinct()
+                .collect(Collectors.joining(","));
+        return transactionTemplate.execute(status -> {
+            // одним запросом, ключи по возрастанию; ожидание пакета в метрику wait не попадает
+            entityManager.createNativeQuery("select count(pg_advisory_xact_lock(?1, k)) from " +
+                            "(select k from unnest(cast(string_to_array(?2, ',') as int[])) k order by k) keys")
+                    .setParameter(1, ITEM_LOCK_SPACE)
+                    .setParameter(2, keys)
+                    .getSingleResult();
+            meters.acquired();
+            return action.get();
+        });
+    }
+}
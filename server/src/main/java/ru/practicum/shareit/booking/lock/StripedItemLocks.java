@@ -0,0 +1,82 @@
+package ru.practicum.shareit.booking.lock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Полосатая блокировка в памяти процесса, для H2 и единственного экземпляра сервера.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.item-lock.mode", havingValue = "jvm")
+public class StripedItemLocks implements ItemLocks {
+
+    private final ReentrantLock[] stripes;
+    private final ItemLockMeters meters;
+
+    @Autowired
+    public StripedItemLocks(@Value("${shareit.item-lock.stripes:64}") int stripes, MeterRegistry meterRegistry) {
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.meters = new ItemLockMeters(meterRegistry, "jvm");
+    }
+
+    @Override
+    public <T> T withLock(long itemId, Supplier<T> action) {
+        ReentrantLock lock = stripe(itemId);
+        lock(lock);
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public <T> T withLocks(Collection<Long> itemIds, Supplier<T> action) {
+        int[] indexes = itemIds.stream()
+                .mapToInt(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .toArray();
+        int locked = 0;
+        try {
+            for (int index : indexes) {
+                lock(stripes[index]);
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    private void lock(ReentrantLock lock) {
+        if (!lock.tryLock()) {
+            long start = System.nanoTime();
+            lock.lock();
+            meters.waited(start);
+        }
+        meters.acquired();
+    }
+
+    ReentrantLock stripe(long itemId) {
+        return stripes[stripeIndex(itemId)];
+    }
+
+    private int stripeIndex(long itemId) {
+        // перемешиваем биты, чтобы подряд идущие id не попадали в соседние полосы одной группой
+        long hash = itemId * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(hash ^ (hash >>> 32), (long) stripes.length);
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.overlap;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проверка, занята ли вещь активным (WAITING/APPROVED) бронированием в интервале [start, end).
+ */
+public interface BookingOverlapCheck {
+
+    boolean exists(long itemId, LocalDateTime start, LocalDateTime end);
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.overlap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Переносимая проверка для H2, без диапазонных типов: читает только бронирования вещи,
+ * которые заканчиваются после start, по индексу (item_id, end_date).
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.booking-overlap.check", havingValue = "jpql")
+public class JpqlBookingOverlapCheck implements BookingOverlapCheck {
+
+    private static final Set<Status> ACTIVE_STATUSES = EnumSet.of(Status.WAITING, Status.APPROVED);
+
+    private final BookingRepository bookingRepository;
+
+    @Autowired
+    public JpqlBookingOverlapCheck(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    @Override
+    public boolean exists(long itemId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime firstStart = bookingRepository.findFirstStartByItemEndingAfter(itemId, ACTIVE_STATUSES, start);
+        return firstStart != null && firstStart.isBefore(end);
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking.overlap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Пересечение диапазонов tsrange по GiST индексу ограничения bookings_no_overlap (см. db/migration/postgresql):
+ * число прошлых бронирований вещи на время проверки не влияет.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.booking-overlap.check", havingValue = "postgres", matchIfMissing = true)
+public class PostgresBookingOverlapCheck implements BookingOverlapCheck {
+
+    private final BookingRepository bookingRepository;
+
+    @Autowired
+    public PostgresBookingOverlapCheck(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    @Override
+    public boolean exists(long itemId, LocalDateTime start, LocalDateTime end) {
+        return !bookingRepository.findActiveOverlappingIdsByRange(itemId, start, end).isEmpty();
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    @Override
+    @EntityGraph(attributePaths = {"item", "item.owner", "item.itemRequest", "item.itemRequest.requestor", "booker"})
+    Optional<ArchivedBooking> findById(Long id);
+
+    @Query("select case when count(b) > 0 then true else false end " +
+            "from ArchivedBooking b " +
+            "where b.booker.id = ?1 and b.item.id = ?2 and b.end < ?3 and b.status = ?4")
+    boolean existsByBooker_IdAndItem_IdAndEndIsBeforeAndStatus(long bookerId, long itemId, LocalDateTime time,
+                                                               Status status);
+}
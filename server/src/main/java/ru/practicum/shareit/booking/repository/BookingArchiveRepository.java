@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.repository;
+
+import java.time.LocalDateTime;
+
+public interface BookingArchiveRepository {
+
+    /**
+     * Переносит в bookings_archive не больше limit бронирований, закончившихся до endedBefore и уже
+     * не ожидающих решения. Последнее по окончанию прошедшее бронирование каждой вещи остаётся в bookings:
+     * на нём держится lastBooking вещи. Копирование и удаление выполняются в одной транзакции.
+     *
+     * @return число перенесённых бронирований
+     */
+    int archiveEndedBefore(LocalDateTime endedBefore, LocalDateTime now, int limit);
+}
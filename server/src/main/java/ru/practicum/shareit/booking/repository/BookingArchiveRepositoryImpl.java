@@ -0,0 +1,47 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public class BookingArchiveRepositoryImpl implements BookingArchiveRepository {
+
+    private static final String SELECT_ARCHIVABLE = "select b.booking_id from bookings b " +
+            "where b.end_date < :endedBefore and b.status <> 'WAITING' " +
+            "and b.end_date < (select max(l.end_date) from bookings l " +
+            "where l.item_id = b.item_id and l.end_date < :now) " +
+            "order by b.booking_id limit :limit";
+    private static final String COPY = "insert into bookings_archive " +
+            "(booking_id, start_date, end_date, item_id, booker_id, status) " +
+            "select booking_id, start_date, end_date, item_id, booker_id, status " +
+            "from bookings where booking_id in (:ids)";
+    private static final String DELETE = "delete from bookings where booking_id in (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public BookingArchiveRepositoryImpl(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public int archiveEndedBefore(LocalDateTime endedBefore, LocalDateTime now, int limit) {
+        Integer archived = transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(SELECT_ARCHIVABLE,
+                    Map.of("endedBefore", endedBefore, "now", now, "limit", limit), Long.class);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            jdbcTemplate.update(COPY, Map.of("ids", ids));
+            return jdbcTemplate.update(DELETE, Map.of("ids", ids));
+        });
+        return archived == null ? 0 : archived;
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.List;
+
+public interface BookingBatchRepository {
+
+    /**
+     * Вставляет новые бронирования одним JDBC batch и проставляет им сгенерированные id.
+     * Сущности не попадают в контекст персистентности. Ошибка откатывает только этот пакет.
+     */
+    void insertAll(List<Booking> bookings);
+}
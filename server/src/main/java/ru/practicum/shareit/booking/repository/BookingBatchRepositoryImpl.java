@@ -0,0 +1,87 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.List;
+
+public class BookingBatchRepositoryImpl implements BookingBatchRepository {
+
+    private static final String INSERT = "insert into bookings (start_date, end_date, item_id, booker_id, status) " +
+            "values (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public BookingBatchRepositoryImpl(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Пакет вставляется в своей транзакции или, если транзакция уже идёт, после точки сохранения:
+     * при ошибке, в том числе если драйвер вернул меньше ключей, чем строк, не остаётся ни одной
+     * записи пакета, а внешняя транзакция остаётся рабочей (PostgreSQL иначе прерывает её целиком).
+     * Точка сохранения ставится через JDBC: JpaTransactionManager с Hibernate их не поддерживает.
+     */
+    @Override
+    public void insertAll(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> insertAfterSavepoint(connection, bookings));
+        } else {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.execute((ConnectionCallback<Void>) connection -> insert(connection, bookings)));
+        }
+    }
+
+    private Void insertAfterSavepoint(Connection connection, List<Booking> bookings) throws SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            insert(connection, bookings);
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback(savepoint);
+            throw e;
+        }
+        connection.releaseSavepoint(savepoint);
+        return null;
+    }
+
+    private Void insert(Connection connection, List<Booking> bookings) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            for (Booking booking : bookings) {
+                statement.setObject(1, booking.getStart());
+                statement.setObject(2, booking.getEnd());
+                statement.setLong(3, booking.getItem().getId());
+                statement.setLong(4, booking.getBooker().getId());
+                statement.setString(5, booking.getStatus().name());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                for (int i = 0; i < bookings.size(); i++) {
+                    if (!keys.next()) {
+                        throw new IncorrectResultSizeDataAccessException("Драйвер вернул " + i
+                                + " ключей на " + bookings.size() + " бронирований", bookings.size(), i);
+                    }
+                    bookings.get(i).setId(keys.getLong(1));
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.dto.BookingDtoShort;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Списки бронирований пользователя: роль (букер или владелец вещи) и состояние собираются
+ * в один запрос, без отдельного производного метода на каждое сочетание. Строки списка
+ * читаются проекцией в BookingDtoShort, сущности не загружаются.
+ * Состояния ALL, PAST и REJECTED читаются и из bookings_archive, остальные - только из bookings.
+ */
+public interface BookingQueryRepository {
+
+    /**
+     * Страница бронирований пользователя в порядке (start desc, id desc), начиная после курсора.
+     * Курсор null - первая страница.
+     */
+    List<BookingDtoShort> findPage(BookingRole role, long userId, Status state, LocalDateTime now,
+                           PageCursor after, int size);
+
+    /**
+     * Страница бронирований пользователя в том же порядке, начиная со смещения from.
+     */
+    List<BookingDtoShort> findPage(BookingRole role, long userId, Status state, LocalDateTime now,
+                           int from, int size);
+}
@@ -0,0 +1,209 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.LocalDateTimeType;
+import org.hibernate.type.LongType;
+import org.hibernate.type.StringType;
+import ru.practicum.shareit.booking.dto.BookingDtoShort;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exception.BookingException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class BookingQueryRepositoryImpl implements BookingQueryRepository {
+
+    /**
+     * Состояния, в которые попадают перенесённые в архив бронирования: архивируются только
+     * закончившиеся и не ожидающие решения.
+     */
+    private static final Set<Status> ARCHIVED_STATES = EnumSet.of(Status.ALL, Status.PAST, Status.REJECTED);
+    private static final Comparator<BookingDtoShort> PAGE_ORDER = Comparator
+            .comparing(BookingDtoShort::getStart)
+            .thenComparing(BookingDtoShort::getId)
+            .reversed();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingDtoShort> findPage(BookingRole role, long userId, Status state, LocalDateTime now,
+                                          PageCursor after, int size) {
+        List<BookingDtoShort> bookings = createQuery(Booking.class, role, userId, state, now, after)
+                .setMaxResults(size)
+                .getResultList();
+        if (!ARCHIVED_STATES.contains(state)) {
+            return bookings;
+        }
+        List<BookingDtoShort> archived = createQuery(ArchivedBooking.class, role, userId, state, now, after)
+                .setMaxResults(size)
+                .getResultList();
+        return merge(bookings, archived, size);
+    }
+
+    @Override
+    public List<BookingDtoShort> findPage(BookingRole role, long userId, Status state, LocalDateTime now,
+                                          int from, int size) {
+        if (!ARCHIVED_STATES.contains(state)) {
+            return createQuery(Booking.class, role, userId, state, now, null)
+                    .setFirstResult(from)
+                    .setMaxResults(size)
+                    .getResultList();
+        }
+        return findUnionPage(role, userId, state, now, from, size);
+    }
+
+    /**
+     * Страница общего порядка может целиком прийтись на любую из таблиц, поэтому обе таблицы
+     * объединяются в SQL (UNION ALL) и смещение применяется там же: в приложение приходит только size строк.
+     * Каждая ветка сама упорядочена и ограничена from + size строками, так что читается по индексу.
+     */
+    @SuppressWarnings("unchecked")
+    private List<BookingDtoShort> findUnionPage(BookingRole role, long userId, Status state, LocalDateTime now,
+                                                int from, int size) {
+        String where = unionWhere(role, state);
+        String sql = "select u.booking_id, u.start_date, u.end_date, u.status, u.item_id, i.item_name, u.booker_id " +
+                "from ((" + unionBranch("bookings", where) + ") union all (" +
+                unionBranch("bookings_archive", where) + ")) u " +
+                "left join items i on i.item_id = u.item_id " +
+                "order by u.start_date desc, u.booking_id desc " +
+                "limit :size offset :from";
+        Query query = entityManager.createNativeQuery(sql)
+                .setParameter("userId", userId)
+                .setParameter("branchLimit", from + size)
+                .setParameter("size", size)
+                .setParameter("from", from);
+        if (state == Status.PAST) {
+            query.setParameter("now", now);
+        } else if (state == Status.REJECTED) {
+            query.setParameter("status", state.name());
+        }
+        List<Object[]> rows = query.unwrap(NativeQuery.class)
+                .addScalar("booking_id", LongType.INSTANCE)
+                .addScalar("start_date", LocalDateTimeType.INSTANCE)
+                .addScalar("end_date", LocalDateTimeType.INSTANCE)
+                .addScalar("status", StringType.INSTANCE)
+                .addScalar("item_id", LongType.INSTANCE)
+                .addScalar("item_name", StringType.INSTANCE)
+                .addScalar("booker_id", LongType.INSTANCE)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new BookingDtoShort((Long) row[0], (LocalDateTime) row[1], (LocalDateTime) row[2],
+                        Status.valueOf((String) row[3]), (Long) row[4], (String) row[5], (Long) row[6]))
+                .collect(Collectors.toList());
+    }
+
+    private static String unionBranch(String table, String where) {
+        return "select b.booking_id, b.start_date, b.end_date, b.status, b.item_id, b.booker_id " +
+                "from " + table + " b where " + where + " " +
+                "order by b.start_date desc, b.booking_id desc limit :branchLimit";
+    }
+
+    /**
+     * Те же условия, что строит createQuery, для состояний из ARCHIVED_STATES.
+     */
+    private static String unionWhere(BookingRole role, Status state) {
+        String where = role == BookingRole.OWNER
+                ? "b.item_id in (select o.item_id from items o where o.owner_id = :userId)"
+                : "b.booker_id = :userId";
+        switch (state) {
+            case ALL:
+                return where;
+            case PAST:
+                return where + " and b.end_date < :now";
+            case REJECTED:
+                return where + " and b.status = :status";
+            default:
+                throw new BookingException("Unknown state: UNSUPPORTED_STATUS");
+        }
+    }
+
+    private static List<BookingDtoShort> merge(List<BookingDtoShort> bookings, List<BookingDtoShort> archived,
+                                               int size) {
+        if (archived.isEmpty()) {
+            return bookings;
+        }
+        return Stream.concat(bookings.stream(), archived.stream())
+                .sorted(PAGE_ORDER)
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * source - Booking или ArchivedBooking: поля у них одинаковые. Из связей нужен только join вещи ради её названия, id букера берётся из bookings.booker_id.
+     * Отбор идёт только по столбцам bookings: для букера bookings.booker_id, для владельца
+     * bookings.item_id in (вещи владельца), так что поиск начинается с индекса и не зависит от порядка join.
+     */
+    private <T> TypedQuery<BookingDtoShort> createQuery(Class<T> source, BookingRole role, long userId, Status state,
+                                                        LocalDateTime now, PageCursor after) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingDtoShort> query = cb.createQuery(BookingDtoShort.class);
+        Root<T> booking = query.from(source);
+        Join<T, Item> item = booking.join("item", JoinType.LEFT);
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        Path<Long> id = booking.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (role == BookingRole.OWNER) {
+            Subquery<Long> ownerItems = query.subquery(Long.class);
+            Root<Item> ownerItem = ownerItems.from(Item.class);
+            ownerItems.select(ownerItem.get("id")).where(cb.equal(ownerItem.get("owner").get("id"), userId));
+            predicates.add(booking.get("item").get("id").in(ownerItems));
+        } else {
+            predicates.add(cb.equal(booking.get("booker").get("id"), userId));
+        }
+        switch (state) {
+            case ALL:
+                break;
+            case CURRENT:
+                predicates.add(cb.lessThanOrEqualTo(start, now));
+                predicates.add(cb.greaterThanOrEqualTo(end, now));
+                break;
+            case PAST:
+                predicates.add(cb.lessThan(end, now));
+                break;
+            case FUTURE:
+                predicates.add(cb.greaterThan(start, now));
+                break;
+            case WAITING:
+            case REJECTED:
+                predicates.add(cb.equal(booking.get("status"), state));
+                break;
+            default:
+                throw new BookingException("Unknown state: UNSUPPORTED_STATUS");
+        }
+        if (after != null) {
+            predicates.add(cb.or(cb.lessThan(start, after.getTime()),
+                    cb.and(cb.equal(start, after.getTime()), cb.lessThan(id, after.getId()))));
+        }
+        query.select(cb.construct(BookingDtoShort.class, id, start, end, booking.get("status"),
+                        item.get("id"), item.get("name"), booking.get("booker").get("id")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(start), cb.desc(id));
+        return entityManager.createQuery(query);
+    }
+}
@@ -1,60 +1,158 @@
 package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingApprovalView;
+import ru.practicum.shareit.booking.dto.BookingDtoForItem;
+import ru.practicum.shareit.booking.dto.BookingIntervalView;
+import ru.practicum.shareit.booking.dto.BookingItemView;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.enums.Status;
 import ru.practicum.shareit.booking.model.Booking;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingQueryRepository,
+        BookingBatchRepository, BookingArchiveRepository {
+
+    @Override
+    @EntityGraph("Booking.list")
+    Optional<Booking> findById(Long id);
+
+    /**
+     * Решение владельца одним UPDATE: строка меняется, только если бронирование ещё ждёт решения
+     * и вещь принадлежит ownerId. Возвращает число изменённых строк (0 или 1).
+     */
+    @Transactional
+    @Modifying
+    @Query("update Booking b set b.status = ?4 " +
+            "where b.id = ?1 and b.status = ?3 " +
+            "and b.item.id in (select i.id from Item i where i.owner.id = ?2)")
+    int updateStatusIfCurrent(long bookingId, long ownerId, Status current, Status status);
+
+    @Query("select b.item.id as itemId, b.start as start, b.end as end " +
+            "from Booking b " +
+            "where b.item.id in ?1 and b.status in ?2 and b.start < ?4 and b.end > ?3")
+    List<BookingIntervalView> findIntervalsOverlapping(Collection<Long> itemIds, Collection<Status> statuses,
+                                                       LocalDateTime start, LocalDateTime end);
+
+    @Query("select b.item.id as itemId, b.start as start, b.end as end " +
+            "from Booking b " +
+            "where b.item.id = ?1 and b.status in ?2 and b.end > ?3 " +
+            "order by b.start")
+    List<BookingIntervalView> findIntervalsEndingAfter(long itemId, Collection<Status> statuses, LocalDateTime after);
+
+    @Query("select b.id as id, b.status as status, b.item.owner.id as ownerId, b.item.id as itemId " +
+            "from Booking b " +
+            "where b.id = ?1")
+    Optional<BookingApprovalView> findApprovalViewById(long bookingId);
+
+    @Query("select b.id as id, b.status as status, b.item.owner.id as ownerId, b.item.id as itemId " +
+            "from Booking b " +
+            "where b.id in ?1")
+    List<BookingApprovalView> findApprovalViewsByIdIn(Collection<Long> bookingIds);
+
+    /**
+     * Пакетное решение владельца одним UPDATE: бронирования из approvedIds получают approved,
+     * остальные - rejected. Меняются только ожидающие решения бронирования вещей ownerId.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Booking b set b.status = case when b.id in ?4 then ?5 else ?6 end " +
+            "where b.id in ?1 and b.status = ?3 " +
+            "and b.item.id in (select i.id from Item i where i.owner.id = ?2)")
+    int decideIfCurrent(Collection<Long> bookingIds, long ownerId, Status current, Collection<Long> approvedIds,
+                        Status approved, Status rejected);
+
+    @Transactional
+    @Modifying
+    @Query("update Booking b set b.status = ?4 " +
+            "where b.id in ?1 and b.status = ?3 " +
+            "and b.item.id in (select i.id from Item i where i.owner.id = ?2)")
+    int updateStatusesIfCurrent(Collection<Long> bookingIds, long ownerId, Status current, Status status);
+
+    /**
+     * Смена статуса без проверки владельца: меняются только бронирования, всё ещё находящиеся в статусе current.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Booking b set b.status = ?3 " +
+            "where b.id in ?1 and b.status = ?2")
+    int updateStatusesIfCurrent(Collection<Long> bookingIds, Status current, Status status);
+
+    @Query("select b.id as id, b.item.id as itemId " +
+            "from Booking b " +
+            "where b.status = ?1 and b.start < ?2 " +
+            "order by b.start")
+    List<BookingItemView> findByStatusAndStartBefore(Status status, LocalDateTime time, Pageable pageable);
+
+    @Query("select min(b.start) " +
+            "from Booking b " +
+            "where b.status = ?1 and b.start < ?2")
+    LocalDateTime findFirstStartByStatusAndStartBefore(Status status, LocalDateTime time);
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-
-    List<Booking> findByBooker_Id(long userId, Pageable pageable);
-
-    List<Booking> searchBookingByItem_Owner_Id(long id, Pageable pageable);
-
+    @Query("select b " +
+            "from Booking b " +
+            "where b.booker.id = ?1 and b.item.id = ?2 and b.end < ?3 and b.status = ?4")
     List<Booking> searchBookingByBooker_IdAndItem_IdAndEndIsBeforeAndStatus(long id, long itemId,
                                                                    LocalDateTime time, Status status);
 
-    List<Booking> searchBookingByItem_Owner_IdAndStartIsAfter(long id,
-                                                              LocalDateTime time,
-                                                              Pageable pageable);
-
-    List<Booking> findByBooker_IdAndStartAfter(long userId, LocalDateTime time,
-                                               Pageable pageable);
-
-    List<Booking> findBookingsByItem_IdAndEndIsBeforeOrderByEndDesc(long id, LocalDateTime time);
-
-    List<Booking> findBookingsByItem_IdAndStartIsAfterOrderByStartDesc(long id, LocalDateTime time);
-
-    List<Booking> findBookingsByBooker_IdAndStatus(long userId, Status status,
-                                                   Pageable pageable);
-
-    List<Booking> findBookingsByItem_Owner_Id(long id, Pageable pageable);
-
-    @Query("select b " +
-            "from Booking b left join User as us on b.booker.id = us.id " +
-            "where us.id = ?1 " +
-            "and ?2 between b.start and b.end " +
-            "order by b.start DESC")
-    List<Booking> findCurrentBookingsByBooker_Id(long userId, LocalDateTime time,
-                                                 Pageable pageable);
-
-    @Query("select b " +
-            "from Booking b left join Item as i on b.item.id = i.id " +
-            "left join User as us on i.owner.id = us.id " +
-            "where us.id = ?1 " +
-            "and ?2 between b.start and b.end " +
-            "order by b.start DESC")
-    List<Booking> findCurrentBookingsByItem_Owner_Id(long userId, LocalDateTime time,
-                                                     Pageable pageable);
-
-    List<Booking> findBookingsByBooker_IdAndEndIsBefore(long userId, LocalDateTime time,
-                                                        Pageable pageable);
-
-    List<Booking> findBookingsByItem_Owner_IdAndEndIsBefore(long userId,
-                                                            LocalDateTime time,
-                                                            Pageable pageable);
+    @Query("select new ru.practicum.shareit.booking.dto.BookingDtoForItem(b.id, b.booker.id) " +
+            "from Booking b " +
+            "where b.item.id = ?1 and b.end < ?2 " +
+            "order by b.end desc")
+    List<BookingDtoForItem> findLastBookingsByItem_Id(long itemId, LocalDateTime time, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingDtoForItem(b.id, b.booker.id) " +
+            "from Booking b " +
+            "where b.item.id = ?1 and b.start > ?2 " +
+            "order by b.start desc")
+    List<BookingDtoForItem> findNextBookingsByItem_Id(long itemId, LocalDateTime time, Pageable pageable);
+
+    /**
+     * Самое раннее начало бронирований вещи в статусах statuses, которые заканчиваются после time.
+     * Интервал [time, end) пересекается с одним из них, только если это начало раньше end.
+     * Поиск идёт по (item_id, end_date): прошедшие бронирования вещи не читаются.
+     */
+    @Query("select min(b.start) " +
+            "from Booking b " +
+            "where b.item.id = ?1 and b.end > ?3 and b.status in ?2")
+    LocalDateTime findFirstStartByItemEndingAfter(long itemId, Collection<Status> statuses, LocalDateTime time);
+
+    /**
+     * Id одного WAITING/APPROVED бронирования вещи, пересекающегося с [start, end), на PostgreSQL:
+     * предикат совпадает с исключающим ограничением bookings_no_overlap, поэтому запрос
+     * обслуживает его GiST индекс.
+     */
+    @Query(value = "select b.booking_id " +
+            "from bookings b " +
+            "where b.item_id = ?1 and b.status in ('WAITING', 'APPROVED') " +
+            "and tsrange(b.start_date, b.end_date) && tsrange(?2, ?3) " +
+            "limit 1", nativeQuery = true)
+    List<Long> findActiveOverlappingIdsByRange(long itemId, LocalDateTime start, LocalDateTime end);
+
+    @Query("select min(case when b.start > ?2 then b.start else b.end end) " +
+            "from Booking b " +
+            "where b.item.id = ?1 and b.end > ?2")
+    LocalDateTime findNextChangeByItem_Id(long itemId, LocalDateTime time);
+
+    @Query(value = "select t.item_id as itemId, t.booking_id as id, t.booker_id as bookerId, t.kind as kind " +
+            "from (select b.item_id, b.booking_id, b.booker_id, 'LAST' as kind, " +
+            "row_number() over (partition by b.item_id order by b.end_date desc) as rn " +
+            "from bookings b " +
+            "where b.item_id in (?1) and b.end_date < ?2 " +
+            "union all " +
+            "select b.item_id, b.booking_id, b.booker_id, 'NEXT' as kind, " +
+            "row_number() over (partition by b.item_id order by b.start_date desc) as rn " +
+            "from bookings b " +
+            "where b.item_id in (?1) and b.start_date > ?2) t " +
+            "where t.rn = 1", nativeQuery = true)
+    List<ItemBookingView> findLastAndNextBookingsByItemIds(Collection<Long> itemIds, LocalDateTime time);
 }
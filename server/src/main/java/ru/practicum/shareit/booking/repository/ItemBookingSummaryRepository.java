@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+
+    @Query("select s.itemId from ItemBookingSummary s where s.validUntil <= ?1")
+    List<Long> findExpiredItemIds(LocalDateTime time);
+
+    @Transactional
+    @Modifying
+    @Query("delete from ItemBookingSummary s where s.itemId in ?1")
+    void deleteByItemIds(Collection<Long> itemIds);
+}
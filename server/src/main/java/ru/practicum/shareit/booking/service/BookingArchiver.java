@@ -0,0 +1,55 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Переносит бронирования, закончившиеся раньше чем retention назад, из bookings в bookings_archive,
+ * чтобы в горячей таблице оставались текущие, будущие и недавние бронирования.
+ */
+@Component
+@Slf4j
+public class BookingArchiver {
+
+    private final BookingRepository bookingRepository;
+    private final Duration retention;
+    private final int batchSize;
+
+    @Autowired
+    public BookingArchiver(BookingRepository bookingRepository,
+                           @Value("${shareit.booking-archive.retention:P365D}") Duration retention,
+                           @Value("${shareit.booking-archive.batch-size:1000}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Переносит пачками по batchSize, каждая пачка - отдельная транзакция.
+     *
+     * @return число перенесённых бронирований
+     */
+    @Scheduled(initialDelayString = "${shareit.booking-archive.delay:3600000}",
+            fixedDelayString = "${shareit.booking-archive.delay:3600000}")
+    public int archive() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime endedBefore = now.minus(retention);
+        int total = 0;
+        int archived;
+        do {
+            archived = bookingRepository.archiveEndedBefore(endedBefore, now, batchSize);
+            total += archived;
+        } while (archived == batchSize);
+        if (total > 0) {
+            log.info("В архив перенесено {} бронирований, закончившихся до {}", total, endedBefore);
+        }
+        return total;
+    }
+}
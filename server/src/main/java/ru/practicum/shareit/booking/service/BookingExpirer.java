@@ -0,0 +1,123 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingItemView;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.event.ItemBookingsChangedEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Отменяет бронирования, которые так и остались в WAITING после наступления start:
+ * подтверждать их уже поздно, а вещь они продолжают занимать.
+ */
+@Component
+@Slf4j
+public class BookingExpirer {
+
+    private final BookingRepository bookingRepository;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final Duration pause;
+    private final Counter expired;
+    private final Timer batchTimer;
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    @Autowired
+    public BookingExpirer(BookingRepository bookingRepository,
+                          ItemBookingSummaryService itemBookingSummaryService,
+                          ApplicationEventPublisher eventPublisher,
+                          MeterRegistry meterRegistry,
+                          @Value("${shareit.booking-expiry.batch-size:500}") int batchSize,
+                          @Value("${shareit.booking-expiry.pause:PT0.1S}") Duration pause) {
+        this.bookingRepository = bookingRepository;
+        this.itemBookingSummaryService = itemBookingSummaryService;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.pause = pause;
+        this.expired = Counter.builder("shareit.booking.expiry.expired")
+                .description("Бронирования, отменённые из-за наступившего start без решения владельца")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("shareit.booking.expiry.batch")
+                .description("Время обработки одной пачки просроченных бронирований")
+                .register(meterRegistry);
+        Gauge.builder("shareit.booking.expiry.lag", lagSeconds, AtomicLong::get)
+                .description("Сколько секунд назад наступил start самого старого неотменённого просроченного бронирования")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Обрабатывает пачками по batchSize в порядке start, каждая пачка - один UPDATE по id,
+     * между пачками пауза pause, чтобы не занимать базу надолго.
+     *
+     * @return число отменённых бронирований
+     */
+    @Scheduled(initialDelayString = "${shareit.booking-expiry.delay:60000}",
+            fixedDelayString = "${shareit.booking-expiry.delay:60000}")
+    public int expire() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int found;
+        do {
+            List<BookingItemView> batch = bookingRepository.findByStatusAndStartBefore(Status.WAITING, now,
+                    PageRequest.of(0, batchSize));
+            found = batch.size();
+            if (found > 0) {
+                total += batchTimer.record(() -> expireBatch(batch));
+            }
+        } while (found == batchSize && pause());
+        updateLag(now);
+        if (total > 0) {
+            log.info("Отменено {} бронирований, не подтверждённых до начала", total);
+        }
+        return total;
+    }
+
+    private int expireBatch(List<BookingItemView> batch) {
+        List<Long> bookingIds = batch.stream()
+                .map(BookingItemView::getId)
+                .collect(Collectors.toList());
+        // бронирования, по которым владелец успел принять решение, UPDATE не тронет
+        int updated = bookingRepository.updateStatusesIfCurrent(bookingIds, Status.WAITING, Status.CANCELED);
+        expired.increment(updated);
+        Set<Long> itemIds = batch.stream()
+                .map(BookingItemView::getItemId)
+                .collect(Collectors.toSet());
+        itemBookingSummaryService.invalidate(itemIds);
+        itemIds.forEach(itemId -> eventPublisher.publishEvent(new ItemBookingsChangedEvent(itemId)));
+        return updated;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void updateLag(LocalDateTime now) {
+        LocalDateTime oldest = bookingRepository.findFirstStartByStatusAndStartBefore(Status.WAITING, now);
+        lagSeconds.set(oldest == null ? 0 : Duration.between(oldest, now).getSeconds());
+    }
+}
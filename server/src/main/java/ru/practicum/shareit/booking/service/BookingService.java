@@ -1,7 +1,12 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoShort;
 import ru.practicum.shareit.booking.dto.BookingDtoSimple;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.util.List;
 
@@ -9,16 +14,24 @@ public interface BookingService {
 
     BookingDto findById(long bookingId, long userId);
 
-    List<BookingDto> findAll(long userId, String state, int from, int size);
+    List<BookingDtoShort> findAll(long userId, String state, int from, int size);
+
+    List<BookingDtoShort> findAll(long userId, String state, PageCursor cursor, int size);
 
     BookingDto save(BookingDtoSimple bookingDtoSimple, long userId);
 
+    List<BookingBatchResultDto> saveAll(List<BookingDtoSimple> bookingDtos, long userId);
+
+    List<BookingDecisionResultDto> decideAll(long userId, List<BookingDecisionDto> decisions);
+
     BookingDto update(long bookingId, BookingDto bookingDto);
 
     void deleteById(long bookingId);
 
     BookingDto approve(long userId, long bookingId, Boolean approved);
 
-    List<BookingDto> findAllByItemOwnerId(long userId, String state,  int from, int size);
+    List<BookingDtoShort> findAllByItemOwnerId(long userId, String state,  int from, int size);
+
+    List<BookingDtoShort> findAllByItemOwnerId(long userId, String state, PageCursor cursor, int size);
 
 }
@@ -2,95 +2,118 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.dto.BookingApprovalView;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoShort;
 import ru.practicum.shareit.booking.dto.BookingDtoSimple;
+import ru.practicum.shareit.booking.dto.BookingIntervalView;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.enums.BookingRole;
 import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.lock.ItemLocks;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.overlap.BookingOverlapCheck;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BookingConflictException;
 import ru.practicum.shareit.exception.BookingException;
+import ru.practicum.shareit.exception.CursorException;
 import ru.practicum.shareit.exception.ItemException;
 import ru.practicum.shareit.exception.StorageException;
+import ru.practicum.shareit.item.event.ItemBookingsChangedEvent;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.CursorKind;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class BookingServiceImpl implements BookingService {
 
+    private static final Set<Status> ACTIVE_STATUSES = EnumSet.of(Status.WAITING, Status.APPROVED);
+    private static final String OVERLAP_CONSTRAINT = "bookings_no_overlap";
+
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingMapper mapper;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final ItemLocks itemLocks;
+    private final BookingOverlapCheck overlapCheck;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public BookingServiceImpl(BookingRepository bookingRepository, ItemRepository itemRepository,
-                              UserRepository userRepository, BookingMapper mapper) {
+    public BookingServiceImpl(BookingRepository bookingRepository, ArchivedBookingRepository archivedBookingRepository,
+                              ItemRepository itemRepository, UserRepository userRepository, BookingMapper mapper,
+                              ItemBookingSummaryService itemBookingSummaryService, ItemLocks itemLocks,
+                              BookingOverlapCheck overlapCheck, ApplicationEventPublisher eventPublisher) {
         this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.mapper = mapper;
+        this.itemBookingSummaryService = itemBookingSummaryService;
+        this.itemLocks = itemLocks;
+        this.overlapCheck = overlapCheck;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public BookingDto findById(long bookingId, long userId) {
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new StorageException("Бронирования с Id = " + bookingId + " нет в БД"));
-        if (booking.getBooker().getId() != userId
-                && booking.getItem().getOwner().getId() != userId) {
-            throw new StorageException("Incorrect userId");
+        Optional<Booking> booking = bookingRepository.findById(bookingId);
+        if (booking.isEmpty()) {
+            ArchivedBooking archived = archivedBookingRepository.findById(bookingId)
+                    .orElseThrow(() -> new StorageException("Бронирования с Id = " + bookingId + " нет в БД"));
+            checkParticipant(archived.getBooker().getId(), archived.getItem().getOwner().getId(), userId);
+            return mapper.toBookingDto(archived);
         }
-        return mapper.toBookingDto(booking);
+        checkParticipant(booking.get().getBooker().getId(), booking.get().getItem().getOwner().getId(), userId);
+        return mapper.toBookingDto(booking.get());
+    }
 
+    private static void checkParticipant(long bookerId, long ownerId, long userId) {
+        if (bookerId != userId && ownerId != userId) {
+            throw new StorageException("Incorrect userId");
+        }
     }
 
     @Override
-    public List<BookingDto> findAll(long userId, String state, int from, int size) {
+    public List<BookingDtoShort> findAll(long userId, String state, int from, int size) {
 
         userRepository.findById(userId).orElseThrow(() -> new StorageException("Incorrect userId"));
-        int page = from / size;
-        Pageable pageable = PageRequest.of(page, size, Sort.by("start").descending());
+        return findPage(BookingRole.BOOKER, userId, state, from, size);
+    }
 
-        try {
-            switch (Status.valueOf(state)) {
-                case ALL:
-                    return bookingRepository.findByBooker_Id(userId, pageable)
-                            .stream()
-                            .map(mapper::toBookingDto).collect(Collectors.toList());
-                case CURRENT:
-                    return bookingRepository.findCurrentBookingsByBooker_Id(userId, LocalDateTime.now(),
-                            pageable).stream().map(mapper::toBookingDto).collect(Collectors.toList());
-                case PAST:
-                    return bookingRepository.findBookingsByBooker_IdAndEndIsBefore(userId, LocalDateTime.now(),
-                            pageable).stream().map(mapper::toBookingDto).collect(Collectors.toList());
-                case FUTURE:
-                    return bookingRepository.findByBooker_IdAndStartAfter(userId, LocalDateTime.now(), pageable)
-                            .stream().map(mapper::toBookingDto).collect(Collectors.toList());
-                case WAITING:
-                    return bookingRepository.findBookingsByBooker_IdAndStatus(userId,
-                                    Status.WAITING, pageable)
-                            .stream()
-                            .map(mapper::toBookingDto).collect(Collectors.toList());
-                case REJECTED:
-                    return bookingRepository.findBookingsByBooker_IdAndStatus(userId,
-                                    Status.REJECTED, pageable)
-                            .stream()
-                            .map(mapper::toBookingDto).collect(Collectors.toList());
-                default:
-                    throw new BookingException("Unknown state: UNSUPPORTED_STATUS");
-            }
-        } catch (IllegalArgumentException e) {
-            throw new BookingException("Unknown state: UNSUPPORTED_STATUS");
-        }
+    @Override
+    public List<BookingDtoShort> findAll(long userId, String state, PageCursor cursor, int size) {
+        userRepository.findById(userId).orElseThrow(() -> new StorageException("Incorrect userId"));
+        return findPage(BookingRole.BOOKER, userId, state, cursor, size);
     }
 
     @Override
@@ -100,7 +123,7 @@ public class BookingServiceImpl implements BookingService {
         }
         Booking booking = mapper.fromSimpleToBooking(bookingDtoSimple);
         booking.setBooker(userRepository.findById(userId).orElseThrow());
-        Item item = itemRepository.findById(bookingDtoSimple.getItemId())
+        Item item = itemRepository.findWithOwnerAndRequestById(bookingDtoSimple.getItemId())
                 .orElseThrow(() -> new StorageException("Вещи с Id = "
                         + bookingDtoSimple.getItemId() + " нет в базе данных"));
         if (!item.getAvailable()) {
@@ -111,7 +134,13 @@ public class BookingServiceImpl implements BookingService {
             throw new StorageException("Владелец вещи не может забронировать свою вещь");
         } else {
             booking.setItem(item);
-            return mapper.toBookingDto(bookingRepository.save(booking));
+            BookingDto bookingDto = itemLocks.withLock(item.getId(), () -> {
+                checkNoOverlap(item.getId(), booking.getStart(), booking.getEnd());
+                return mapper.toBookingDto(insert(booking));
+            });
+            itemBookingSummaryService.refresh(item.getId());
+            eventPublisher.publishEvent(new ItemBookingsChangedEvent(item.getId()));
+            return bookingDto;
         }
     }
 
@@ -139,63 +168,305 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public void deleteById(long bookingId) {
-        bookingRepository.deleteById(bookingId);
+        Optional<Booking> found = bookingRepository.findById(bookingId);
+        if (found.isEmpty()) {
+            // архивное бронирование давно закончилось и в сводку вещи не входит
+            ArchivedBooking archived = archivedBookingRepository.findById(bookingId)
+                    .orElseThrow(() -> new StorageException("Бронирования с Id = " + bookingId + " нет в БД"));
+            archivedBookingRepository.delete(archived);
+            return;
+        }
+        Booking booking = found.get();
+        bookingRepository.delete(booking);
+        itemBookingSummaryService.refresh(booking.getItem().getId());
+        eventPublisher.publishEvent(new ItemBookingsChangedEvent(booking.getItem().getId()));
     }
 
     @Override
-    public BookingDto approve(long userId, long bookingId, Boolean approved) {
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow();
-        if (booking.getItem().getOwner().getId() != userId) {
-            throw new StorageException("Подтвердить бронирование может только владелец вещи");
+    public List<BookingBatchResultDto> saveAll(List<BookingDtoSimple> bookingDtos, long userId) {
+        User booker = userRepository.findById(userId).orElseThrow(() ->
+                new StorageException("Пользователя с Id = " + userId + " нет в БД"));
+        Map<Long, Item> items = itemRepository.findWithOwnerAndRequestByIdIn(bookingDtos.stream()
+                        .map(BookingDtoSimple::getItemId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        BookingBatchResultDto[] results = new BookingBatchResultDto[bookingDtos.size()];
+        Map<Integer, Booking> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            BookingDtoSimple bookingDto = bookingDtos.get(i);
+            Item item = bookingDto.getItemId() == null ? null : items.get(bookingDto.getItemId());
+            if (bookingDto.getStart() == null || bookingDto.getEnd() == null
+                    || bookingDto.getEnd().isBefore(bookingDto.getStart())) {
+                results[i] = BookingBatchResultDto.rejected(i, "BAD_REQUEST", "Incorrect end time");
+            } else if (item == null) {
+                results[i] = BookingBatchResultDto.rejected(i, "NOT_FOUND", "Вещи с Id = "
+                        + bookingDto.getItemId() + " нет в базе данных");
+            } else if (!item.getAvailable()) {
+                results[i] = BookingBatchResultDto.rejected(i, "NOT_AVAILABLE", "Вещь с Id = "
+                        + item.getId() + " не доступна для аренды");
+            } else if (item.getOwner().getId() == userId) {
+                results[i] = BookingBatchResultDto.rejected(i, "NOT_FOUND",
+                        "Владелец вещи не может забронировать свою вещь");
+            } else {
+                Booking booking = mapper.fromSimpleToBooking(bookingDto);
+                booking.setId(null);
+                booking.setItem(item);
+                booking.setBooker(booker);
+                candidates.put(i, booking);
+            }
+        }
+        if (!candidates.isEmpty()) {
+            Set<Long> itemIds = candidates.values().stream()
+                    .map(booking -> booking.getItem().getId())
+                    .collect(Collectors.toSet());
+            List<Booking> inserted = itemLocks.withLocks(itemIds, () -> insertWithoutOverlaps(candidates, results));
+            Set<Long> changedItemIds = inserted.stream()
+                    .map(booking -> booking.getItem().getId())
+                    .collect(Collectors.toSet());
+            itemBookingSummaryService.invalidate(changedItemIds);
+            changedItemIds.forEach(itemId -> eventPublisher.publishEvent(new ItemBookingsChangedEvent(itemId)));
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Интервалы существующих активных бронирований всех вещей пакета загружаются одним запросом,
+     * записи пакета проверяются и против них, и друг против друга. Выполняется под блокировкой вещей.
+     */
+    private List<Booking> insertWithoutOverlaps(Map<Integer, Booking> candidates, BookingBatchResultDto[] results) {
+        LocalDateTime from = candidates.values().stream().map(Booking::getStart)
+                .min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = candidates.values().stream().map(Booking::getEnd)
+                .max(Comparator.naturalOrder()).orElseThrow();
+        Set<Long> itemIds = candidates.values().stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet());
+        Map<Long, List<BookingIntervalView>> busy = bookingRepository
+                .findIntervalsOverlapping(itemIds, ACTIVE_STATUSES, from, to).stream()
+                .collect(Collectors.groupingBy(BookingIntervalView::getItemId));
+        Map<Long, List<Booking>> accepted = new HashMap<>();
+        Map<Integer, Booking> toInsert = new LinkedHashMap<>();
+        candidates.forEach((index, booking) -> {
+            long itemId = booking.getItem().getId();
+            boolean overlaps = busy.getOrDefault(itemId, List.of()).stream()
+                    .anyMatch(interval -> overlaps(interval.getStart(), interval.getEnd(), booking))
+                    || accepted.getOrDefault(itemId, List.of()).stream()
+                    .anyMatch(other -> overlaps(other.getStart(), other.getEnd(), booking));
+            if (overlaps) {
+                results[index] = BookingBatchResultDto.rejected(index, "BOOKING_CONFLICT",
+                        "Вещь с Id = " + itemId + " уже забронирована на это время");
+            } else {
+                accepted.computeIfAbsent(itemId, id -> new ArrayList<>()).add(booking);
+                toInsert.put(index, booking);
+            }
+        });
+        try {
+            bookingRepository.insertAll(new ArrayList<>(toInsert.values()));
+        } catch (DataIntegrityViolationException e) {
+            if (!isOverlap(e)) {
+                throw e;
+            }
+            // пакет откатился целиком: записи вставляются по одной, отклоняются только конфликтующие
+            insertOneByOne(toInsert, results);
         }
-        if (booking.getStatus().equals(Status.APPROVED)) {
-            throw new BookingException("Бронирование уже подтверждено");
+        toInsert.forEach((index, booking) ->
+                results[index] = BookingBatchResultDto.created(index, mapper.toBookingDto(booking)));
+        return new ArrayList<>(toInsert.values());
+    }
+
+    /**
+     * Каждая запись вставляется своим insertAll, то есть после своей точки сохранения: конфликт откатывает
+     * только её, блокировки вещей и внешняя транзакция сохраняются.
+     */
+    private void insertOneByOne(Map<Integer, Booking> toInsert, BookingBatchResultDto[] results) {
+        Iterator<Map.Entry<Integer, Booking>> entries = toInsert.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Integer, Booking> entry = entries.next();
+            try {
+                bookingRepository.insertAll(List.of(entry.getValue()));
+            } catch (DataIntegrityViolationException e) {
+                if (!isOverlap(e)) {
+                    throw e;
+                }
+                results[entry.getKey()] = BookingBatchResultDto.rejected(entry.getKey(), "BOOKING_CONFLICT",
+                        "Вещь с Id = " + entry.getValue().getItem().getId() + " уже забронирована на это время");
+                entries.remove();
+            }
         }
+    }
+
+    private static boolean overlaps(LocalDateTime start, LocalDateTime end, Booking booking) {
+        return start.isBefore(booking.getEnd()) && end.isAfter(booking.getStart());
+    }
+
+    private void checkNoOverlap(long itemId, LocalDateTime start, LocalDateTime end) {
+        if (overlapCheck.exists(itemId, start, end)) {
+            throw new BookingConflictException("Вещь с Id = " + itemId + " уже забронирована на это время");
+        }
+    }
+
+    /**
+     * На PostgreSQL пересечение при параллельных запросах отсекает ограничение bookings_no_overlap.
+     */
+    private Booking insert(Booking booking) {
+        try {
+            return bookingRepository.save(booking);
+        } catch (DataIntegrityViolationException e) {
+            if (isOverlap(e)) {
+                throw new BookingConflictException("Вещь с Id = " + booking.getItem().getId()
+                        + " уже забронирована на это время");
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isOverlap(DataIntegrityViolationException e) {
+        return String.valueOf(e.getMostSpecificCause().getMessage()).contains(OVERLAP_CONSTRAINT);
+    }
+
+    @Override
+    public BookingDto approve(long userId, long bookingId, Boolean approved) {
         if (approved == null) {
             throw new BookingException("Необходимо указать approved");
-        } else if (approved) {
-            booking.setStatus(Status.APPROVED);
-            return mapper.toBookingDto(bookingRepository.save(booking));
-        } else {
-            booking.setStatus(Status.REJECTED);
-            return mapper.toBookingDto(bookingRepository.save(booking));
         }
+        int updated = bookingRepository.updateStatusIfCurrent(bookingId, userId, Status.WAITING,
+                approved ? Status.APPROVED : Status.REJECTED);
+        if (updated == 0) {
+            throw approvalError(bookingId, userId);
+        }
+        Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+        itemBookingSummaryService.refresh(booking.getItem().getId());
+        eventPublisher.publishEvent(new ItemBookingsChangedEvent(booking.getItem().getId()));
+        return mapper.toBookingDto(booking);
+    }
+
+    private RuntimeException approvalError(long bookingId, long userId) {
+        RuntimeException error = decisionError(bookingId,
+                bookingRepository.findApprovalViewById(bookingId).orElse(null), userId);
+        return error != null ? error : new BookingException("Решение по бронированию уже принято");
+    }
+
+    /**
+     * Причина, по которой владелец userId не может принять решение по бронированию, или null.
+     */
+    private static RuntimeException decisionError(long bookingId, BookingApprovalView booking, long userId) {
+        if (booking == null) {
+            return new StorageException("Бронирования с Id = " + bookingId + " нет в БД");
+        }
+        if (booking.getOwnerId() != userId) {
+            return new StorageException("Подтвердить бронирование может только владелец вещи");
+        }
+        if (booking.getStatus() == Status.APPROVED) {
+            return new BookingException("Бронирование уже подтверждено");
+        }
+        if (booking.getStatus() != Status.WAITING) {
+            return new BookingException("Решение по бронированию уже принято");
+        }
+        return null;
     }
 
     @Override
-    public List<BookingDto> findAllByItemOwnerId(long userId, String state, int from, int size) {
+    public List<BookingDecisionResultDto> decideAll(long userId, List<BookingDecisionDto> decisions) {
+        BookingDecisionResultDto[] results = new BookingDecisionResultDto[decisions.size()];
+        Map<Long, Integer> indexes = new LinkedHashMap<>();
+        for (int i = 0; i < decisions.size(); i++) {
+            BookingDecisionDto decision = decisions.get(i);
+            if (decision.getBookingId() == null || decision.getApproved() == null) {
+                results[i] = BookingDecisionResultDto.rejected(decision.getBookingId(), "BAD_REQUEST",
+                        "Необходимо указать bookingId и approved");
+            } else if (indexes.putIfAbsent(decision.getBookingId(), i) != null) {
+                results[i] = BookingDecisionResultDto.rejected(decision.getBookingId(), "BAD_REQUEST",
+                        "Решение по бронированию указано повторно");
+            }
+        }
+        Map<Long, BookingApprovalView> bookings = indexes.isEmpty() ? Map.of() : bookingRepository
+                .findApprovalViewsByIdIn(indexes.keySet()).stream()
+                .collect(Collectors.toMap(BookingApprovalView::getId, Function.identity()));
+        Map<Long, Status> eligible = new LinkedHashMap<>();
+        indexes.forEach((bookingId, index) -> {
+            RuntimeException error = decisionError(bookingId, bookings.get(bookingId), userId);
+            if (error == null) {
+                eligible.put(bookingId, decisions.get(index).getApproved() ? Status.APPROVED : Status.REJECTED);
+            } else {
+                results[index] = decisionRejected(bookingId, error);
+            }
+        });
+        if (!eligible.isEmpty() && applyDecisions(userId, eligible) < eligible.size()) {
+            // часть бронирований решена параллельным запросом между чтением и UPDATE
+            for (BookingApprovalView booking : bookingRepository.findApprovalViewsByIdIn(eligible.keySet())) {
+                if (booking.getStatus() != eligible.get(booking.getId())) {
+                    results[indexes.get(booking.getId())] = decisionRejected(booking.getId(),
+                            new BookingException("Решение по бронированию уже принято"));
+                    eligible.remove(booking.getId());
+                }
+            }
+        }
+        eligible.forEach((bookingId, status) ->
+                results[indexes.get(bookingId)] = BookingDecisionResultDto.applied(bookingId, status));
+        Set<Long> itemIds = eligible.keySet().stream()
+                .map(bookingId -> bookings.get(bookingId).getItemId())
+                .collect(Collectors.toSet());
+        itemBookingSummaryService.invalidate(itemIds);
+        itemIds.forEach(itemId -> eventPublisher.publishEvent(new ItemBookingsChangedEvent(itemId)));
+        return Arrays.asList(results);
+    }
+
+    private int applyDecisions(long userId, Map<Long, Status> decisions) {
+        List<Long> approvedIds = decisions.entrySet().stream()
+                .filter(decision -> decision.getValue() == Status.APPROVED)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        if (approvedIds.isEmpty() || approvedIds.size() == decisions.size()) {
+            Status status = approvedIds.isEmpty() ? Status.REJECTED : Status.APPROVED;
+            return bookingRepository.updateStatusesIfCurrent(decisions.keySet(), userId, Status.WAITING, status);
+        }
+        return bookingRepository.decideIfCurrent(decisions.keySet(), userId, Status.WAITING, approvedIds,
+                Status.APPROVED, Status.REJECTED);
+    }
+
+    private static BookingDecisionResultDto decisionRejected(long bookingId, RuntimeException error) {
+        return BookingDecisionResultDto.rejected(bookingId,
+                error instanceof StorageException ? "NOT_FOUND" : "BAD_REQUEST", error.getMessage());
+    }
+
+    @Override
+    public List<BookingDtoShort> findAllByItemOwnerId(long userId, String state, int from, int size) {
+        userRepository.findById(userId).orElseThrow(() -> new StorageException("Incorrect userId"));
+        return checkOwnerHasItems(userId, findPage(BookingRole.OWNER, userId, state, from, size));
+    }
+
+    @Override
+    public List<BookingDtoShort> findAllByItemOwnerId(long userId, String state, PageCursor cursor, int size) {
         userRepository.findById(userId).orElseThrow(() -> new StorageException("Incorrect userId"));
-        int page = from / size;
-        Pageable pageable = PageRequest.of(page, size, Sort.by("start").descending());
-        List<BookingDto> result = bookingRepository.searchBookingByItem_Owner_Id(userId, pageable).stream()
-                .map(mapper::toBookingDto).collect(Collectors.toList());
-        if (result.isEmpty()) {
+        return checkOwnerHasItems(userId, findPage(BookingRole.OWNER, userId, state, cursor, size));
+    }
+
+    /**
+     * Вещи проверяются, только если страница пуста: непустая страница уже означает, что они есть.
+     */
+    private List<BookingDtoShort> checkOwnerHasItems(long userId, List<BookingDtoShort> bookings) {
+        if (bookings.isEmpty() && !itemRepository.existsByOwner_Id(userId)) {
             throw new StorageException("У пользователя нет вещей");
         }
+        return bookings;
+    }
+
+    private List<BookingDtoShort> findPage(BookingRole role, long userId, String state, int from, int size) {
+        // from округляется вниз до начала страницы размера size
+        return bookingRepository.findPage(role, userId, toStatus(state), LocalDateTime.now(), from / size * size, size);
+    }
+
+    private List<BookingDtoShort> findPage(BookingRole role, long userId, String state, PageCursor cursor, int size) {
+        if (cursor != null && cursor.getKind() != CursorKind.BOOKINGS) {
+            throw new CursorException("Курсор не относится к списку бронирований");
+        }
+        return bookingRepository.findPage(role, userId, toStatus(state), LocalDateTime.now(), cursor, size);
+    }
+
+    private static Status toStatus(String state) {
         try {
-            switch (Status.valueOf(state)) {
-                case ALL:
-                    return result;
-                case CURRENT:
-                    return bookingRepository.findCurrentBookingsByItem_Owner_Id(userId, LocalDateTime.now(),
-                            pageable).stream().map(mapper::toBookingDto).collect(Collectors.toList());
-                case PAST:
-                    return bookingRepository.findBookingsByItem_Owner_IdAndEndIsBefore(userId, LocalDateTime.now(),
-                            pageable).stream().map(mapper::toBookingDto).collect(Collectors.toList());
-                case FUTURE:
-                    return bookingRepository.searchBookingByItem_Owner_IdAndStartIsAfter(userId, LocalDateTime.now(),
-                            pageable).stream().map(mapper::toBookingDto).collect(Collectors.toList());
-                case WAITING:
-                    return bookingRepository.findBookingsByItem_Owner_Id(userId, pageable).stream().skip(from)
-                            .filter(booking -> booking.getStatus().equals(Status.WAITING))
-                            .map(mapper::toBookingDto).collect(Collectors.toList());
-                case REJECTED:
-                    return bookingRepository.findBookingsByItem_Owner_Id(userId, pageable).stream().skip(from)
-                            .filter(booking -> booking.getStatus().equals(Status.REJECTED))
-                            .map(mapper::toBookingDto).collect(Collectors.toList());
-                default:
-                    throw new BookingException("Unknown state: UNSUPPORTED_STATUS");
-            }
+            return Status.valueOf(state);
         } catch (IllegalArgumentException e) {
             throw new BookingException("Unknown state: UNSUPPORTED_STATUS");
         }
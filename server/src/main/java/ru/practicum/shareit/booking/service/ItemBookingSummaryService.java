@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.service;
+
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+
+import java.util.Collection;
+
+public interface ItemBookingSummaryService {
+
+    ItemBookingSummary findByItemId(long itemId);
+
+    ItemBookingSummary refresh(long itemId);
+
+    /**
+     * Удаляет сводки вещей одним запросом, они пересчитаются при следующем чтении.
+     */
+    void invalidate(Collection<Long> itemIds);
+
+    void refreshExpired();
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.dto.BookingDtoForItem;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Service
+@Slf4j
+public class ItemBookingSummaryServiceImpl implements ItemBookingSummaryService {
+
+    private static final Pageable FIRST = PageRequest.of(0, 1);
+
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final BookingRepository bookingRepository;
+
+    @Autowired
+    public ItemBookingSummaryServiceImpl(ItemBookingSummaryRepository summaryRepository,
+                                         BookingRepository bookingRepository) {
+        this.summaryRepository = summaryRepository;
+        this.bookingRepository = bookingRepository;
+    }
+
+    @Override
+    public ItemBookingSummary findByItemId(long itemId) {
+        LocalDateTime now = LocalDateTime.now();
+        return summaryRepository.findById(itemId)
+                .filter(summary -> summary.getValidUntil() == null || summary.getValidUntil().isAfter(now))
+                .orElseGet(() -> refresh(itemId, now));
+    }
+
+    @Override
+    public ItemBookingSummary refresh(long itemId) {
+        return refresh(itemId, LocalDateTime.now());
+    }
+
+    @Override
+    public void invalidate(Collection<Long> itemIds) {
+        if (!itemIds.isEmpty()) {
+            summaryRepository.deleteByItemIds(itemIds);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${shareit.booking-summary.refresh-delay:60000}")
+    public void refreshExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> itemIds = summaryRepository.findExpiredItemIds(now);
+        for (Long itemId : itemIds) {
+            refresh(itemId, now);
+        }
+        if (!itemIds.isEmpty()) {
+            log.info("Обновлены последние/следующие бронирования для {} вещей", itemIds.size());
+        }
+    }
+
+    private ItemBookingSummary refresh(long itemId, LocalDateTime now) {
+        ItemBookingSummary summary = new ItemBookingSummary();
+        summary.setItemId(itemId);
+        List<BookingDtoForItem> lastBookings = bookingRepository.findLastBookingsByItem_Id(itemId, now, FIRST);
+        if (!lastBookings.isEmpty()) {
+            summary.setLastBookingId(lastBookings.get(0).getId());
+            summary.setLastBookerId(lastBookings.get(0).getBookerId());
+        }
+        List<BookingDtoForItem> nextBookings = bookingRepository.findNextBookingsByItem_Id(itemId, now, FIRST);
+        if (!nextBookings.isEmpty()) {
+            summary.setNextBookingId(nextBookings.get(0).getId());
+            summary.setNextBookerId(nextBookings.get(0).getBookerId());
+        }
+        summary.setValidUntil(bookingRepository.findNextChangeByItem_Id(itemId, now));
+        try {
+            return summaryRepository.save(summary);
+        } catch (DataIntegrityViolationException e) {
+            // строки не было, и её успел вставить параллельный пересчёт той же вещи:
+            // повторный save найдёт её и обновит
+            return summaryRepository.save(summary);
+        }
+    }
+}
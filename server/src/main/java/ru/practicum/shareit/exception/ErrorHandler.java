@@ -37,4 +37,18 @@ public class ErrorHandler {
         log.error("Storage error - incorrect request" + "\n" + e.getMessage());
         return new ErrorResponse(e.getMessage(), "incorrect request");
     }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleCursorException(CursorException e) {
+        log.error("Pagination error - incorrect cursor" + "\n" + e.getMessage());
+        return new ErrorResponse("INCORRECT_CURSOR", e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleBookingConflictException(BookingConflictException e) {
+        log.error("Booking error - item already booked" + "\n" + e.getMessage());
+        return new ErrorResponse("BOOKING_CONFLICT", e.getMessage());
+    }
 }
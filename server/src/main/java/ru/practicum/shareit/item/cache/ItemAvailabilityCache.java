@@ -0,0 +1,82 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.IntervalDto;
+import ru.practicum.shareit.item.event.ItemBookingsChangedEvent;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Кэш занятых интервалов вещи для GET /items/{itemId}/availability. Запись хранит интервалы,
+ * заканчивающиеся после начала текущего дня минус horizon, и обслуживает любые окна, начинающиеся
+ * не раньше этой границы: календарь запрашивает окна с начала дня или с чуть устаревшего "сейчас".
+ * Окна, уходящие дальше в прошлое, читаются из БД мимо кэша.
+ */
+@Component
+public class ItemAvailabilityCache {
+
+    private final Cache<Long, Entry> cache;
+    private final Duration horizon;
+
+    @Autowired
+    public ItemAvailabilityCache(@Value("${shareit.availability-cache.maximum-size:10000}") long maximumSize,
+                                 @Value("${shareit.availability-cache.ttl:PT5M}") Duration ttl,
+                                 @Value("${shareit.availability-cache.horizon:P7D}") Duration horizon,
+                                 MeterRegistry meterRegistry) {
+        this.horizon = horizon;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "itemAvailability");
+    }
+
+    /**
+     * Занятые интервалы вещи, заканчивающиеся после from, упорядоченные по началу.
+     * loader получает момент, после которого должны заканчиваться интервалы.
+     */
+    public List<IntervalDto> getBusy(long itemId, LocalDateTime from,
+                                     Function<LocalDateTime, List<IntervalDto>> loader) {
+        // загрузка идёт под блокировкой ключа: инвалидация во время загрузки дождётся её и удалит результат
+        Entry entry = cache.get(itemId, id -> {
+            LocalDateTime loadedFrom = LocalDate.now().atStartOfDay().minus(horizon);
+            return new Entry(loadedFrom, List.copyOf(loader.apply(loadedFrom)));
+        });
+        if (from.isBefore(entry.getLoadedFrom())) {
+            return loader.apply(from);
+        }
+        return entry.getBusy();
+    }
+
+    @EventListener
+    public void onItemBookingsChanged(ItemBookingsChangedEvent event) {
+        cache.invalidate(event.getItemId());
+    }
+
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        cache.invalidate(event.getItemId());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Entry {
+        private final LocalDateTime loadedFrom;
+        private final List<IntervalDto> busy;
+    }
+}
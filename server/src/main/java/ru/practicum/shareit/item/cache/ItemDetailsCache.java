@@ -0,0 +1,104 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDtoWithBooking;
+import ru.practicum.shareit.item.event.ItemBookingsChangedEvent;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Кэш ответов GET /items/{itemId}, раздельно для владельца и остальных пользователей.
+ * Представление владельца живёт не дольше validUntil сводки бронирований, то есть до момента,
+ * когда последнее/следующее бронирование сменится само по времени.
+ */
+@Component
+public class ItemDetailsCache {
+
+    private final Cache<Key, Entry> cache;
+    private final Duration ttl;
+
+    @Autowired
+    public ItemDetailsCache(@Value("${shareit.item-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${shareit.item-cache.ttl:PT5M}") Duration ttl,
+                            MeterRegistry meterRegistry) {
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new EntryExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "itemDetails");
+    }
+
+    /**
+     * Ответ из кэша или из loader. Загрузка идёт под блокировкой ключа: событие, пришедшее во время
+     * загрузки, дождётся её и удалит результат, так что устаревший ответ в кэше не останется.
+     */
+    public ItemDtoWithBooking get(long itemId, boolean ownerView, Supplier<Entry> loader) {
+        return cache.get(new Key(itemId, ownerView), key -> loader.get()).getItem();
+    }
+
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        cache.invalidateAll(List.of(new Key(event.getItemId(), true), new Key(event.getItemId(), false)));
+    }
+
+    @EventListener
+    public void onItemBookingsChanged(ItemBookingsChangedEvent event) {
+        cache.invalidate(new Key(event.getItemId(), true));
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class Key {
+        private final long itemId;
+        private final boolean ownerView;
+    }
+
+    /**
+     * Ответ и момент, до которого он верен; null - без ограничения, кроме ttl.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final ItemDtoWithBooking item;
+        private final LocalDateTime validUntil;
+    }
+
+    private class EntryExpiry implements Expiry<Key, Entry> {
+
+        @Override
+        public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+            if (entry.getValidUntil() == null) {
+                return ttl.toNanos();
+            }
+            Duration untilChange = Duration.between(LocalDateTime.now(), entry.getValidUntil());
+            return Math.max(0, Math.min(ttl.toNanos(), untilChange.toNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.event.ItemSearchChangedEvent;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш результатов GET /items/search. Ключ - нормализованный текст запроса и окно страницы.
+ * При изменении вещи удаляются запросы, токен которых входит в прежний или новый текст вещи,
+ * и запросы, в результатах которых вещь уже есть. Совпадения только по словоформе (поиск postgres)
+ * устаревают не дольше ttl.
+ */
+@Component
+public class ItemSearchCache {
+
+    private final Cache<Key, List<ItemDto>> cache;
+    private final Map<String, Set<Key>> keysByToken = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Key>> keysByItem = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public ItemSearchCache(@Value("${shareit.search-cache.maximum-size:1000}") long maximumSize,
+                           @Value("${shareit.search-cache.ttl:PT1M}") Duration ttl,
+                           MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .removalListener((Key key, List<ItemDto> items, RemovalCause cause) -> {
+                    if (cause != RemovalCause.REPLACED) {
+                        unlink(key, items);
+                    }
+                })
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "itemSearch");
+        Gauge.builder("shareit.search.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Доля запросов поиска, обслуженных из кэша")
+                .register(meterRegistry);
+    }
+
+    public static String normalize(String text) {
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Страница по номеру: from - смещение первой вещи.
+     */
+    public List<ItemDto> getPage(String text, long from, int size, Supplier<List<ItemDto>> loader) {
+        return get(new Key(text, false, from, size), loader);
+    }
+
+    /**
+     * Keyset-страница: вещи с id больше afterId.
+     */
+    public List<ItemDto> getPageAfter(String text, long afterId, int size, Supplier<List<ItemDto>> loader) {
+        return get(new Key(text, true, afterId, size), loader);
+    }
+
+    @EventListener
+    public void onItemSearchChanged(ItemSearchChangedEvent event) {
+        generation.incrementAndGet();
+        String itemText = event.getTexts().stream()
+                .filter(text -> text != null)
+                .map(text -> text.toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining(" "));
+        Set<Key> stale = new HashSet<>(keysByItem.getOrDefault(event.getItemId(), Set.of()));
+        keysByToken.forEach((token, keys) -> {
+            if (itemText.contains(token)) {
+                stale.addAll(keys);
+            }
+        });
+        cache.invalidateAll(stale);
+    }
+
+    private List<ItemDto> get(Key key, Supplier<List<ItemDto>> loader) {
+        List<ItemDto> items = cache.getIfPresent(key);
+        if (items != null) {
+            return items;
+        }
+        long loadedAt = generation.get();
+        items = List.copyOf(loader.get());
+        if (generation.get() != loadedAt) {
+            // вещи менялись во время запроса к БД: результат мог устареть, не кэшируем его
+            return items;
+        }
+        cache.put(key, items);
+        link(key, items);
+        if (generation.get() != loadedAt) {
+            // изменение пришло между put и link и могло не найти новую запись
+            cache.invalidate(key);
+        }
+        return items;
+    }
+
+    private void link(Key key, List<ItemDto> items) {
+        for (String token : key.getTokens()) {
+            keysByToken.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        for (ItemDto item : items) {
+            keysByItem.computeIfAbsent(item.getId(), id -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    private void unlink(Key key, List<ItemDto> items) {
+        if (key == null || items == null) {
+            return;
+        }
+        for (String token : key.getTokens()) {
+            keysByToken.computeIfPresent(token, (t, keys) -> keys.remove(key) && keys.isEmpty() ? null : keys);
+        }
+        for (ItemDto item : items) {
+            keysByItem.computeIfPresent(item.getId(), (id, keys) -> keys.remove(key) && keys.isEmpty() ? null : keys);
+        }
+    }
+
+    @Getter
+    @EqualsAndHashCode(exclude = "tokens")
+    private static class Key {
+        private final String text;
+        private final boolean keyset;
+        private final long position;
+        private final int size;
+        private final Set<String> tokens;
+
+        Key(String text, boolean keyset, long position, int size) {
+            this.text = text;
+            this.keyset = keyset;
+            this.position = position;
+            this.size = size;
+            this.tokens = ItemSearchIndex.tokenize(text);
+        }
+    }
+}
@@ -2,12 +2,18 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.IntervalDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithBooking;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.CursorKind;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import javax.servlet.http.HttpServletResponse;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -29,8 +35,15 @@ public class ItemController {
     @GetMapping
     public List<ItemDtoWithBooking> findAll(@RequestHeader("X-Sharer-User-Id") long userId,
                                             @RequestParam(defaultValue = "0") int from,
-                                            @RequestParam(defaultValue = "20") int size) {
-        return itemService.findAll(userId, from, size);
+                                            @RequestParam(defaultValue = "20") int size,
+                                            @RequestParam(required = false) String cursor,
+                                            HttpServletResponse response) {
+        if (cursor == null) {
+            return itemService.findAll(userId, from, size);
+        }
+        List<ItemDtoWithBooking> items = itemService.findAll(userId, PageCursor.decode(cursor, CursorKind.ITEMS), size);
+        setNextCursor(response, PageCursor.next(items, size, item -> PageCursor.of(CursorKind.ITEMS, item.getId())));
+        return items;
     }
 
     @PostMapping
@@ -58,6 +71,28 @@ public class ItemController {
         return itemService.saveComment(userId, itemId, commentDto);
     }
 
+    @GetMapping("/{itemId}/comments")
+    public List<CommentDto> findComments(@PathVariable long itemId,
+                                         @RequestParam(defaultValue = "20") int size,
+                                         @RequestParam(required = false) String cursor,
+                                         HttpServletResponse response) {
+        List<CommentDto> comments = itemService.findComments(itemId,
+                PageCursor.decode(cursor, CursorKind.COMMENTS), size);
+        setNextCursor(response, PageCursor.next(comments, size,
+                comment -> PageCursor.of(CursorKind.COMMENTS, comment.getCreated(), comment.getId())));
+        return comments;
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public List<IntervalDto> findAvailability(@PathVariable long itemId,
+                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                              LocalDateTime from,
+                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                              LocalDateTime to) {
+        log.info("Get availability item id={}, from={}, to={}", itemId, from, to);
+        return itemService.findAvailability(itemId, from, to);
+    }
+
     @GetMapping("/{itemId}")
     public ItemDtoWithBooking findItemById(@PathVariable long itemId, @RequestHeader("X-Sharer-User-Id") long userId) {
         log.info("Get item id={}", itemId);
@@ -70,11 +105,30 @@ public class ItemController {
         itemService.deleteById(id);
     }
 
+    @GetMapping("/suggest")
+    public List<String> suggest(@RequestParam String prefix,
+                                @RequestParam(defaultValue = "10") int size) {
+        return itemService.suggest(prefix, size);
+    }
+
     @GetMapping("/search")
     public List<ItemDto> findItemByText(@RequestParam String text,
                                         @RequestParam(defaultValue = "0") int from,
-                                        @RequestParam(defaultValue = "20") int size) {
+                                        @RequestParam(defaultValue = "20") int size,
+                                        @RequestParam(required = false) String cursor,
+                                        HttpServletResponse response) {
         log.info("Get search item text={}", text);
-        return itemService.searchItem(text, from, size);
+        if (cursor == null) {
+            return itemService.searchItem(text, from, size);
+        }
+        List<ItemDto> items = itemService.searchItem(text, PageCursor.decode(cursor, CursorKind.SEARCH), size);
+        setNextCursor(response, PageCursor.next(items, size, item -> PageCursor.of(CursorKind.SEARCH, item.getId())));
+        return items;
+    }
+
+    private void setNextCursor(HttpServletResponse response, String nextCursor) {
+        if (nextCursor != null) {
+            response.setHeader(PageCursor.NEXT_CURSOR_HEADER, nextCursor);
+        }
     }
 }
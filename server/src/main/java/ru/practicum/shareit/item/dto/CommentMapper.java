@@ -16,6 +16,14 @@ public class CommentMapper {
                 );
     }
 
+    public CommentDto toCommentDto(ItemCommentView view) {
+        return new CommentDto(view.getId(),
+                view.getText(),
+                view.getAuthorName(),
+                view.getCreated()
+        );
+    }
+
     public Comment toComment(CommentDto commentDto) {
         return new Comment(commentDto.getId(),
                commentDto.getText(),
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Полуоткрытый интервал времени [start, end).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IntervalDto {
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
@@ -19,4 +19,5 @@ public class ItemDtoWithBooking {
     private BookingDtoForItem lastBooking;
     private BookingDtoForItem nextBooking;
     private List<CommentDto> comments;
+    private long commentCount;
 }
@@ -23,6 +23,15 @@ public class ItemMapper {
         return itemDto;
     }
 
+    public ItemDto toItemDto(ItemView view) {
+        return new ItemDto(view.getId(),
+                view.getName(),
+                view.getDescription(),
+                view.getAvailable(),
+                view.getRequestId()
+        );
+    }
+
     public Item toItem(ItemDto itemDto) {
         return new Item(itemDto.getId(),
                 itemDto.getName(),
@@ -39,7 +48,8 @@ public class ItemMapper {
                 item.getAvailable(),
                 null,
                 null,
-                new ArrayList<>()
+                new ArrayList<>(),
+                0
         );
     }
 
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.dto;
+
+public interface ItemView {
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+
+    Long getRequestId();
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.event;
+
+import lombok.Value;
+
+/**
+ * Изменились бронирования вещи: устаревают последнее/следующее бронирование в представлении владельца
+ * и свободные интервалы вещи.
+ */
+@Value
+public class ItemBookingsChangedEvent {
+    long itemId;
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item.event;
+
+import lombok.Value;
+
+/**
+ * Изменились данные самой вещи или её комментарии: устаревают все представления вещи.
+ */
+@Value
+public class ItemChangedEvent {
+    long itemId;
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.event;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Вещь появилась, исчезла или изменила название, описание или доступность.
+ * texts содержит прежние и новые название и описание: по ним находятся устаревшие результаты поиска.
+ */
+@Value
+public class ItemSearchChangedEvent {
+    long itemId;
+    List<String> texts;
+}
@@ -1,11 +1,51 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemCommentCount;
+import ru.practicum.shareit.item.dto.ItemCommentView;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
+    @EntityGraph("Comment.list")
     List<Comment> findAllByItem_Id(long id);
+
+    long countByItem_Id(long itemId);
+
+    @Query("select c.item.id as itemId, count(c) as count " +
+            "from Comment c " +
+            "where c.item.id in ?1 " +
+            "group by c.item.id")
+    List<ItemCommentCount> countByItemIds(Collection<Long> itemIds);
+
+    @Query("select c.item.id as itemId, c.id as id, c.text as text, a.name as authorName, c.created as created " +
+            "from Comment c join c.author a " +
+            "where c.item.id = ?1 " +
+            "order by c.created desc, c.id desc")
+    List<ItemCommentView> findRecentByItem_Id(long itemId, Pageable pageable);
+
+    @Query("select c.item.id as itemId, c.id as id, c.text as text, a.name as authorName, c.created as created " +
+            "from Comment c join c.author a " +
+            "where c.item.id = ?1 " +
+            " and (c.created < ?2 or (c.created = ?2 and c.id < ?3)) " +
+            "order by c.created desc, c.id desc")
+    List<ItemCommentView> findRecentByItem_IdBefore(long itemId, LocalDateTime created, long commentId,
+                                                    Pageable pageable);
+
+    @Query(value = "select t.item_id as itemId, t.comment_id as id, t.comment_text as text, " +
+            " t.user_name as authorName, t.created as created " +
+            "from (select c.item_id, c.comment_id, c.comment_text, u.user_name, c.created, " +
+            "row_number() over (partition by c.item_id order by c.created desc, c.comment_id desc) as rn " +
+            "from comments c join users u on u.user_id = c.author_id " +
+            "where c.item_id in (?1)) t " +
+            "where t.rn <= ?2 " +
+            "order by t.item_id, t.created desc, t.comment_id desc", nativeQuery = true)
+    List<ItemCommentView> findRecentByItemIds(Collection<Long> itemIds, int limit);
 }
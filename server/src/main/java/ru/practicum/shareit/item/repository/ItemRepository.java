@@ -1,21 +1,84 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
-    @Query(" select i from Item i " +
-            "where upper(i.name) like upper(concat('%', ?1, '%')) " +
-            " or upper(i.description) like upper(concat('%', ?1, '%'))")
-    List<Item> search(String text, Pageable pageable);
+    @EntityGraph("Item.withOwnerAndRequest")
+    Optional<Item> findWithOwnerAndRequestById(long itemId);
+
+    @EntityGraph("Item.withOwnerAndRequest")
+    List<Item> findWithOwnerAndRequestByIdIn(Collection<Long> itemIds);
+
+    boolean existsByOwner_Id(long ownerId);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, " +
+            "i.itemRequest.id) " +
+            "from Item i " +
+            "where i.available = true " +
+            " and (upper(i.name) like upper(concat('%', ?1, '%')) " +
+            " or upper(i.description) like upper(concat('%', ?1, '%'))) " +
+            "order by i.id")
+    List<ItemDto> search(String text, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, " +
+            "i.itemRequest.id) " +
+            "from Item i " +
+            "where i.available = true and i.id > ?2 " +
+            " and (upper(i.name) like upper(concat('%', ?1, '%')) " +
+            " or upper(i.description) like upper(concat('%', ?1, '%'))) " +
+            "order by i.id")
+    List<ItemDto> searchAfter(String text, long itemId, Pageable pageable);
+
+    @Query(value = "select i.item_id as id, i.item_name as name, i.description as description, " +
+            " i.available as available, i.request_id as requestId " +
+            "from items i " +
+            "where i.available " +
+            " and (i.search_vector @@ plainto_tsquery('simple', ?1) " +
+            " or i.item_name ilike concat('%', ?1, '%') " +
+            " or i.description ilike concat('%', ?1, '%')) " +
+            "order by ts_rank(i.search_vector, plainto_tsquery('simple', ?1)) desc, " +
+            " greatest(similarity(i.item_name, ?1), similarity(i.description, ?1)) desc, " +
+            " i.item_id", nativeQuery = true)
+    List<ItemView> searchRanked(String text, Pageable pageable);
+
+    @Query(value = "select i.item_id as id, i.item_name as name, i.description as description, " +
+            " i.available as available, i.request_id as requestId " +
+            "from items i " +
+            "where i.available and i.item_id > ?2 " +
+            " and (i.search_vector @@ plainto_tsquery('simple', ?1) " +
+            " or i.item_name ilike concat('%', ?1, '%') " +
+            " or i.description ilike concat('%', ?1, '%')) " +
+            "order by i.item_id", nativeQuery = true)
+    List<ItemView> searchIndexedAfter(String text, long itemId, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, " +
+            "i.itemRequest.id) " +
+            "from Item i " +
+            "where i.id in ?1 " +
+            "order by i.id")
+    List<ItemDto> findAllItemDtoByIds(Collection<Long> itemIds);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, " +
+            "i.itemRequest.id) " +
+            "from Item i " +
+            "where i.available = true")
+    List<ItemDto> findAllAvailable();
 
     List<Item> findAllByItemRequest_Id(Long itemRequestId);
 
     List<Item> findByOwnerId(long userId, Pageable pageable);
 
+    List<Item> findByOwnerIdAndIdGreaterThanOrderById(long userId, long itemId, Pageable pageable);
+
 }
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Поиск по инвертированному индексу в памяти сервера. В индексе только доступные вещи,
+ * из БД по первичному ключу загружается лишь запрошенная страница.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory")
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex index = new ItemSearchIndex();
+    private final Timer rebuildTimer;
+
+    @Autowired
+    public InMemoryItemSearchEngine(ItemRepository itemRepository, MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        this.rebuildTimer = Timer.builder("shareit.search.index.rebuild")
+                .description("Время перестроения индекса поиска вещей")
+                .register(meterRegistry);
+        Gauge.builder("shareit.search.index.items", index, ItemSearchIndex::itemCount)
+                .register(meterRegistry);
+        Gauge.builder("shareit.search.index.tokens", index, ItemSearchIndex::tokenCount)
+                .register(meterRegistry);
+        Gauge.builder("shareit.search.index.memory", index, ItemSearchIndex::estimateMemoryBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuildTimer.record(() -> {
+            index.clear();
+            for (ItemDto item : itemRepository.findAllAvailable()) {
+                index.put(item.getId(), item.getName(), item.getDescription());
+            }
+        });
+        log.info("Индекс поиска вещей перестроен: {} вещей, {} токенов", index.itemCount(), index.tokenCount());
+    }
+
+    @Override
+    public List<ItemDto> search(String text, Pageable pageable) {
+        long[] ids = index.search(text);
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        if (offset >= ids.length) {
+            return Collections.emptyList();
+        }
+        int to = pageable.isPaged() ? (int) Math.min(ids.length, offset + pageable.getPageSize()) : ids.length;
+        return findPage(ids, (int) offset, to);
+    }
+
+    @Override
+    public List<ItemDto> searchAfter(String text, long itemId, int size) {
+        long[] ids = index.search(text);
+        int position = Arrays.binarySearch(ids, itemId);
+        int from = position >= 0 ? position + 1 : -position - 1;
+        if (from >= ids.length) {
+            return Collections.emptyList();
+        }
+        return findPage(ids, from, (int) Math.min(ids.length, (long) from + size));
+    }
+
+    private List<ItemDto> findPage(long[] ids, int from, int to) {
+        List<Long> pageIds = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            pageIds.add(ids[i]);
+        }
+        return itemRepository.findAllItemDtoByIds(pageIds);
+    }
+
+    @Override
+    public void index(Item item) {
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            index.put(item.getId(), item.getName(), item.getDescription());
+        } else {
+            index.remove(item.getId());
+        }
+    }
+
+    @Override
+    public void remove(long itemId) {
+        index.remove(itemId);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+/**
+ * Подсказки названий доступных вещей для поля поиска. Дерево строится при старте
+ * и дальше обновляется при сохранении, изменении и удалении вещи, в БД подсказки не ходят.
+ */
+@Slf4j
+@Component
+public class ItemNameSuggester {
+
+    private final ItemRepository itemRepository;
+    private final ItemNameTrie trie = new ItemNameTrie();
+    private final Timer suggestTimer;
+
+    @Autowired
+    public ItemNameSuggester(ItemRepository itemRepository, MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        this.suggestTimer = Timer.builder("shareit.items.suggest")
+                .description("Время подбора подсказок по префиксу названия")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("shareit.items.suggest.names", trie, ItemNameTrie::itemCount)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        trie.clear();
+        for (ItemDto item : itemRepository.findAllAvailable()) {
+            trie.put(item.getId(), item.getName());
+        }
+        log.info("Дерево подсказок названий вещей перестроено: {} вещей", trie.itemCount());
+    }
+
+    public List<String> suggest(String prefix, int size) {
+        return suggestTimer.record(() -> trie.findByPrefix(prefix, size));
+    }
+
+    public void index(Item item) {
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            trie.put(item.getId(), item.getName());
+        } else {
+            trie.remove(item.getId());
+        }
+    }
+
+    public void remove(long itemId) {
+        trie.remove(itemId);
+    }
+}
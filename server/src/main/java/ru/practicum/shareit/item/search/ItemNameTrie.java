@@ -0,0 +1,252 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Сжатое префиксное дерево названий вещей: у каждого узла метка из нескольких символов,
+ * дети хранятся в отсортированных массивах. Ключ - название в нижнем регистре,
+ * ответ - исходные названия в лексикографическом порядке ключей.
+ */
+public class ItemNameTrie {
+
+    private final Node root = new Node("");
+    private final Map<Long, String> keyByItem = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(long itemId, String name) {
+        String key = key(name);
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(itemId);
+            if (key.isEmpty()) {
+                return;
+            }
+            insert(root, key, itemId, name);
+            keyByItem.put(itemId, key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            root.children = Node.NO_CHILDREN;
+            root.firstChars = Node.NO_CHARS;
+            root.names = null;
+            keyByItem.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Не более limit различных без учёта регистра названий, начинающихся с prefix без учёта регистра.
+     */
+    public List<String> findByPrefix(String prefix, int limit) {
+        String key = key(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int position = 0;
+            while (position < key.length()) {
+                Node child = node.child(key.charAt(position));
+                if (child == null) {
+                    return Collections.emptyList();
+                }
+                int common = commonPrefix(child.label, key, position);
+                if (common < child.label.length() && position + common < key.length()) {
+                    return Collections.emptyList();
+                }
+                position += common;
+                node = child;
+            }
+            Set<String> names = new LinkedHashSet<>();
+            collect(node, names, limit);
+            return new ArrayList<>(names);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int itemCount() {
+        lock.readLock().lock();
+        try {
+            return keyByItem.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String key(String name) {
+        return name == null ? "" : name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static void collect(Node node, Set<String> names, int limit) {
+        if (node.names != null) {
+            // одинаковые без учёта регистра названия показываются один раз, в написании первой вещи
+            names.add(node.names.values().iterator().next());
+            if (names.size() == limit) {
+                return;
+            }
+        }
+        for (Node child : node.children) {
+            collect(child, names, limit);
+            if (names.size() == limit) {
+                return;
+            }
+        }
+    }
+
+    private static void insert(Node node, String key, long itemId, String name) {
+        int position = 0;
+        while (true) {
+            if (position == key.length()) {
+                node.addName(itemId, name);
+                return;
+            }
+            Node child = node.child(key.charAt(position));
+            if (child == null) {
+                Node leaf = new Node(key.substring(position));
+                leaf.addName(itemId, name);
+                node.addChild(leaf);
+                return;
+            }
+            int common = commonPrefix(child.label, key, position);
+            if (common < child.label.length()) {
+                Node middle = new Node(child.label.substring(0, common));
+                node.removeChild(child);
+                child.label = child.label.substring(common);
+                middle.addChild(child);
+                node.addChild(middle);
+                child = middle;
+            }
+            position += common;
+            node = child;
+        }
+    }
+
+    private void removeUnlocked(long itemId) {
+        String key = keyByItem.remove(itemId);
+        if (key != null) {
+            remove(root, key, 0, itemId);
+        }
+    }
+
+    /**
+     * Удаляет id из узла ключа и поднимается обратно, убирая пустые узлы
+     * и склеивая узел без названий с единственным ребёнком.
+     */
+    private static void remove(Node node, String key, int position, long itemId) {
+        if (position == key.length()) {
+            node.removeName(itemId);
+            return;
+        }
+        Node child = node.child(key.charAt(position));
+        if (child == null || !key.startsWith(child.label, position)) {
+            return;
+        }
+        remove(child, key, position + child.label.length(), itemId);
+        if (child.names == null && child.children.length == 0) {
+            node.removeChild(child);
+        } else if (child.names == null && child.children.length == 1) {
+            Node grandChild = child.children[0];
+            node.removeChild(child);
+            grandChild.label = child.label + grandChild.label;
+            node.addChild(grandChild);
+        }
+    }
+
+    private static int commonPrefix(String label, String key, int position) {
+        int max = Math.min(label.length(), key.length() - position);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(position + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static class Node {
+        private static final char[] NO_CHARS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private String label;
+        private char[] firstChars = NO_CHARS;
+        private Node[] children = NO_CHILDREN;
+        private Map<Long, String> names;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char first) {
+            int position = Arrays.binarySearch(firstChars, first);
+            return position >= 0 ? children[position] : null;
+        }
+
+        void addChild(Node child) {
+            int position = -Arrays.binarySearch(firstChars, child.label.charAt(0)) - 1;
+            char[] chars = new char[firstChars.length + 1];
+            Node[] nodes = new Node[children.length + 1];
+            System.arraycopy(firstChars, 0, chars, 0, position);
+            System.arraycopy(children, 0, nodes, 0, position);
+            chars[position] = child.label.charAt(0);
+            nodes[position] = child;
+            System.arraycopy(firstChars, position, chars, position + 1, firstChars.length - position);
+            System.arraycopy(children, position, nodes, position + 1, children.length - position);
+            firstChars = chars;
+            children = nodes;
+        }
+
+        void removeChild(Node child) {
+            int position = Arrays.binarySearch(firstChars, child.label.charAt(0));
+            char[] chars = new char[firstChars.length - 1];
+            Node[] nodes = new Node[children.length - 1];
+            System.arraycopy(firstChars, 0, chars, 0, position);
+            System.arraycopy(children, 0, nodes, 0, position);
+            System.arraycopy(firstChars, position + 1, chars, position, chars.length - position);
+            System.arraycopy(children, position + 1, nodes, position, nodes.length - position);
+            firstChars = chars;
+            children = nodes;
+        }
+
+        void addName(long itemId, String name) {
+            if (names == null) {
+                names = new LinkedHashMap<>(2);
+            }
+            names.put(itemId, name.trim());
+        }
+
+        void removeName(long itemId) {
+            if (names != null) {
+                names.remove(itemId);
+                if (names.isEmpty()) {
+                    names = null;
+                }
+            }
+        }
+    }
+}
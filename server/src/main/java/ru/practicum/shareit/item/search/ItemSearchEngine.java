@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+public interface ItemSearchEngine {
+
+    List<ItemDto> search(String text, Pageable pageable);
+
+    /**
+     * Keyset-страница: вещи с id больше itemId в порядке возрастания id.
+     */
+    List<ItemDto> searchAfter(String text, long itemId, int size);
+
+    default void index(Item item) {
+    }
+
+    default void remove(long itemId) {
+    }
+}
@@ -0,0 +1,258 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс: суффикс токена -> отсортированный массив id вещей.
+ * Совпадение такое же, как у like-поиска: строка запроса целиком, без учёта регистра, входит
+ * в название или описание. Токен запроса ищется как префикс суффиксов, то есть как подстрока токенов,
+ * кандидаты по всем токенам запроса пересекаются и затем проверяются по тексту вещи.
+ * Хранение всех суффиксов увеличивает индекс примерно в среднюю длину токена раз.
+ */
+public class ItemSearchIndex {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final NavigableMap<String, long[]> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> tokensByItem = new HashMap<>();
+    private final Map<Long, String[]> textsByItem = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(long itemId, String... texts) {
+        Set<String> tokens = suffixes(tokenize(texts));
+        String[] lowerTexts = Arrays.stream(texts)
+                .filter(Objects::nonNull)
+                .map(text -> text.toLowerCase(Locale.ROOT))
+                .toArray(String[]::new);
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(itemId);
+            for (String token : tokens) {
+                postings.merge(token, new long[]{itemId}, (ids, id) -> insert(ids, itemId));
+            }
+            tokensByItem.put(itemId, tokens);
+            textsByItem.put(itemId, lowerTexts);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            tokensByItem.clear();
+            textsByItem.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long[] search(String text) {
+        if (text == null || text.isBlank()) {
+            return EMPTY;
+        }
+        String query = text.toLowerCase(Locale.ROOT);
+        Set<String> queryTokens = tokenize(text);
+        lock.readLock().lock();
+        try {
+            long[] candidates = queryTokens.isEmpty() ? allItems() : null;
+            for (String queryToken : queryTokens) {
+                long[] ids = EMPTY;
+                for (long[] tokenIds : postings.subMap(queryToken, true,
+                        queryToken + Character.MAX_VALUE, false).values()) {
+                    ids = union(ids, tokenIds);
+                }
+                candidates = candidates == null ? ids : intersect(candidates, ids);
+                if (candidates.length == 0) {
+                    return EMPTY;
+                }
+            }
+            // токены могут найтись по отдельности, а строка запроса целиком - нет
+            return Arrays.stream(candidates)
+                    .filter(itemId -> Arrays.stream(textsByItem.get(itemId)).anyMatch(t -> t.contains(query)))
+                    .toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] allItems() {
+        return tokensByItem.keySet().stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+    }
+
+    public int itemCount() {
+        lock.readLock().lock();
+        try {
+            return tokensByItem.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int tokenCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Приблизительный размер индекса в байтах: строки токенов, массивы id и служебные объекты коллекций.
+     */
+    public long estimateMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (Map.Entry<String, long[]> entry : postings.entrySet()) {
+                bytes += 40 + 40 + 2L * entry.getKey().length() + 16 + 8L * entry.getValue().length;
+            }
+            for (Set<String> tokens : tokensByItem.values()) {
+                bytes += 48 + 16 + 32L * tokens.size();
+            }
+            for (String[] texts : textsByItem.values()) {
+                bytes += 48 + 16 + 8L * texts.length;
+                for (String text : texts) {
+                    bytes += 40 + 2L * text.length();
+                }
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static Set<String> tokenize(String... texts) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private static Set<String> suffixes(Set<String> tokens) {
+        Set<String> suffixes = new LinkedHashSet<>();
+        for (String token : tokens) {
+            for (int i = 0; i < token.length(); i++) {
+                suffixes.add(token.substring(i));
+            }
+        }
+        return suffixes;
+    }
+
+    private void removeUnlocked(long itemId) {
+        textsByItem.remove(itemId);
+        Set<String> tokens = tokensByItem.remove(itemId);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            long[] ids = delete(postings.get(token), itemId);
+            if (ids.length == 0) {
+                postings.remove(token);
+            } else {
+                postings.put(token, ids);
+            }
+        }
+    }
+
+    private static long[] insert(long[] ids, long id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position >= 0) {
+            return ids;
+        }
+        position = -position - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, position);
+        result[position] = id;
+        System.arraycopy(ids, position, result, position + 1, ids.length - position);
+        return result;
+    }
+
+    private static long[] delete(long[] ids, long id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return ids;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, position);
+        System.arraycopy(ids, position + 1, result, position, ids.length - position - 1);
+        return result;
+    }
+
+    static long[] union(long[] first, long[] second) {
+        if (first.length == 0) {
+            return second;
+        }
+        long[] result = new long[first.length + second.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                result[k++] = first[i++];
+            } else if (first[i] > second[j]) {
+                result[k++] = second[j++];
+            } else {
+                result[k++] = first[i++];
+                j++;
+            }
+        }
+        while (i < first.length) {
+            result[k++] = first[i++];
+        }
+        while (j < second.length) {
+            result[k++] = second[j++];
+        }
+        return Arrays.copyOf(result, k);
+    }
+
+    static long[] intersect(long[] first, long[] second) {
+        long[] result = new long[Math.min(first.length, second.length)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[k++] = first[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+}
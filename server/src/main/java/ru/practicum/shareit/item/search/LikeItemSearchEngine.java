@@ -0,0 +1,36 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+/**
+ * Переносимый поиск через like, используется с H2 (профили ci и test).
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "like")
+public class LikeItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+
+    @Autowired
+    public LikeItemSearchEngine(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @Override
+    public List<ItemDto> search(String text, Pageable pageable) {
+        return itemRepository.search(text, pageable);
+    }
+
+    @Override
+    public List<ItemDto> searchAfter(String text, long itemId, int size) {
+        return itemRepository.searchAfter(text, itemId, PageRequest.of(0, size));
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Поиск по tsvector и триграммным GIN индексам (см. db/migration/postgresql),
+ * результаты отсортированы по релевантности. Keyset-страницы идут в порядке id.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "postgres", matchIfMissing = true)
+public class PostgresItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+    private final ItemMapper itemMapper;
+
+    @Autowired
+    public PostgresItemSearchEngine(ItemRepository itemRepository, ItemMapper itemMapper) {
+        this.itemRepository = itemRepository;
+        this.itemMapper = itemMapper;
+    }
+
+    @Override
+    public List<ItemDto> search(String text, Pageable pageable) {
+        return itemRepository.searchRanked(text, pageable).stream()
+                .map(itemMapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<ItemDto> searchAfter(String text, long itemId, int size) {
+        return itemRepository.searchIndexedAfter(text, itemId, PageRequest.of(0, size)).stream()
+                .map(itemMapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+}
@@ -2,8 +2,11 @@ package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.IntervalDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithBooking;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -12,6 +15,8 @@ public interface ItemService {
 
     List<ItemDtoWithBooking> findAll(long userId, int from, int size);
 
+    List<ItemDtoWithBooking> findAll(long userId, PageCursor cursor, int size);
+
     ItemDto save(long userId, ItemDto itemDto);
 
     ItemDto update(long userId, long id, ItemDto itemDto);
@@ -20,5 +25,13 @@ public interface ItemService {
 
     List<ItemDto> searchItem(String text, int from, int size);
 
+    List<ItemDto> searchItem(String text, PageCursor cursor, int size);
+
     CommentDto saveComment(long userId, long itemId, CommentDto commentDto);
+
+    List<CommentDto> findComments(long itemId, PageCursor cursor, int size);
+
+    List<String> suggest(String prefix, int size);
+
+    List<IntervalDto> findAvailability(long itemId, LocalDateTime from, LocalDateTime to);
 }
@@ -2,112 +2,183 @@ package ru.practicum.shareit.item.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.dto.BookingDtoForItem;
+import ru.practicum.shareit.booking.dto.BookingIntervalView;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.enums.Status;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
 import ru.practicum.shareit.exception.BookingException;
+import ru.practicum.shareit.exception.CursorException;
 import ru.practicum.shareit.exception.StorageException;
+import ru.practicum.shareit.item.cache.ItemAvailabilityCache;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.cache.ItemSearchCache;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.event.ItemSearchChangedEvent;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.pagination.CursorKind;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.requests.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class ItemServiceImpl implements ItemService {
 
+    private static final Set<Status> ACTIVE_STATUSES = EnumSet.of(Status.WAITING, Status.APPROVED);
+
     private final ItemRepository itemRepository;
     private final ItemMapper itemMapper;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final BookingMapper bookingMapper;
     private final CommentRepository commentRepository;
     private final CommentMapper commentMapper;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemNameSuggester itemNameSuggester;
+    private final ItemDetailsCache itemDetailsCache;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemAvailabilityCache itemAvailabilityCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int recentComments;
 
     @Autowired
     public ItemServiceImpl(ItemRepository itemRepository, ItemMapper itemMapper,
                            UserRepository userRepository, BookingRepository bookingRepository,
+                           ArchivedBookingRepository archivedBookingRepository,
                            BookingMapper bookingMapper, CommentRepository commentRepository,
-                           CommentMapper commentMapper, ItemRequestRepository itemRequestRepository) {
+                           CommentMapper commentMapper, ItemRequestRepository itemRequestRepository,
+                           ItemBookingSummaryService itemBookingSummaryService,
+                           ItemSearchEngine itemSearchEngine, ItemNameSuggester itemNameSuggester,
+                           ItemDetailsCache itemDetailsCache,
+                           ItemSearchCache itemSearchCache, ItemAvailabilityCache itemAvailabilityCache,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${shareit.item.recent-comments:10}") int recentComments) {
         this.itemRepository = itemRepository;
         this.itemMapper = itemMapper;
         this.userRepository = userRepository;
         this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
         this.bookingMapper = bookingMapper;
         this.commentRepository = commentRepository;
         this.commentMapper = commentMapper;
         this.itemRequestRepository = itemRequestRepository;
+        this.itemBookingSummaryService = itemBookingSummaryService;
+        this.itemSearchEngine = itemSearchEngine;
+        this.itemNameSuggester = itemNameSuggester;
+        this.itemDetailsCache = itemDetailsCache;
+        this.itemSearchCache = itemSearchCache;
+        this.itemAvailabilityCache = itemAvailabilityCache;
+        this.eventPublisher = eventPublisher;
+        this.recentComments = recentComments;
     }
 
     @Override
     public ItemDtoWithBooking findById(long itemId, long userId) {
-        Item item = itemRepository.findById(itemId)
+        Item item = findItem(itemId);
+        boolean ownerView = item.getOwner().getId() == userId;
+        // вещь перечитывается внутри загрузки: изменение между этим чтением и загрузкой не должно попасть в кэш
+        return itemDetailsCache.get(itemId, ownerView, () -> loadDetails(findItem(itemId), ownerView));
+    }
+
+    private Item findItem(long itemId) {
+        return itemRepository.findById(itemId)
                 .orElseThrow(() -> new StorageException("Вещи с Id = " + itemId + " нет в БД"));
+    }
+
+    private ItemDetailsCache.Entry loadDetails(Item item, boolean ownerView) {
+        long itemId = item.getId();
         ItemDtoWithBooking itemDtoWithBooking = itemMapper
                 .toItemDtoWithBooking(item);
-        if (item.getOwner().getId() == userId) {
-            createItemDtoWithBooking(itemDtoWithBooking);
-        }
-        List<Comment> comments = commentRepository.findAllByItem_Id(itemId);
-        if (!comments.isEmpty()) {
-            itemDtoWithBooking.setComments(comments
-                    .stream().map(commentMapper::toCommentDto)
-                    .collect(Collectors.toList()));
+        LocalDateTime validUntil = null;
+        if (ownerView) {
+            ItemBookingSummary summary = itemBookingSummaryService.findByItemId(itemId);
+            itemDtoWithBooking.setLastBooking(bookingMapper.toLastBookingDtoForItem(summary));
+            itemDtoWithBooking.setNextBooking(bookingMapper.toNextBookingDtoForItem(summary));
+            validUntil = summary.getValidUntil();
         }
-        return itemDtoWithBooking;
+        List<CommentDto> comments = commentRepository
+                .findRecentByItem_Id(itemId, PageRequest.of(0, recentComments)).stream()
+                .map(commentMapper::toCommentDto)
+                .collect(Collectors.toList());
+        itemDtoWithBooking.setComments(comments);
+        itemDtoWithBooking.setCommentCount(comments.size() < recentComments
+                ? comments.size() : commentRepository.countByItem_Id(itemId));
+        return new ItemDetailsCache.Entry(itemDtoWithBooking, validUntil);
     }
 
     @Override
     public List<ItemDtoWithBooking> findAll(long userId, int from, int size) {
         int page = from / size;
         Pageable pageable = PageRequest.of(page, size);
-        List<ItemDtoWithBooking> result = itemRepository.findByOwnerId(userId, pageable).stream()
+        return toItemDtosWithBooking(itemRepository.findByOwnerId(userId, pageable));
+    }
+
+    @Override
+    public List<ItemDtoWithBooking> findAll(long userId, PageCursor cursor, int size) {
+        long afterId = cursor == null ? 0 : cursor.getId();
+        return toItemDtosWithBooking(itemRepository
+                .findByOwnerIdAndIdGreaterThanOrderById(userId, afterId, PageRequest.of(0, size)));
+    }
+
+    private List<ItemDtoWithBooking> toItemDtosWithBooking(List<Item> items) {
+        List<ItemDtoWithBooking> result = items.stream()
                 .map(itemMapper::toItemDtoWithBooking)
                 .collect(Collectors.toList());
-        for (ItemDtoWithBooking itemDtoWithBooking : result) {
-            createItemDtoWithBooking(itemDtoWithBooking);
-            List<Comment> comments = commentRepository.findAllByItem_Id(itemDtoWithBooking.getId());
-            if (!comments.isEmpty()) {
-                itemDtoWithBooking.setComments(comments
-                        .stream().map(commentMapper::toCommentDto)
-                        .collect(Collectors.toList()));
+        if (result.isEmpty()) {
+            return result;
+        }
+        Map<Long, ItemDtoWithBooking> itemsById = result.stream()
+                .collect(Collectors.toMap(ItemDtoWithBooking::getId, Function.identity()));
+        for (ItemBookingView booking : bookingRepository
+                .findLastAndNextBookingsByItemIds(itemsById.keySet(), LocalDateTime.now())) {
+            ItemDtoWithBooking itemDtoWithBooking = itemsById.get(booking.getItemId());
+            if (ItemBookingView.LAST.equals(booking.getKind())) {
+                itemDtoWithBooking.setLastBooking(bookingMapper.toBookingDtoForItem(booking));
+            } else {
+                itemDtoWithBooking.setNextBooking(bookingMapper.toBookingDtoForItem(booking));
             }
         }
-        result.sort(Comparator.comparing(ItemDtoWithBooking::getId));
-        return result;
-    }
-
-    private void createItemDtoWithBooking(ItemDtoWithBooking itemDtoWithBooking) {
-        List<Booking> lastBookings = bookingRepository
-                .findBookingsByItem_IdAndEndIsBeforeOrderByEndDesc(itemDtoWithBooking.getId(),
-                        LocalDateTime.now());
-        if (!lastBookings.isEmpty()) {
-            BookingDtoForItem lastBooking = bookingMapper.toBookingDtoForItem(lastBookings.get(0));
-            itemDtoWithBooking.setLastBooking(lastBooking);
+        for (ItemCommentView comment : commentRepository.findRecentByItemIds(itemsById.keySet(), recentComments)) {
+            itemsById.get(comment.getItemId()).getComments().add(commentMapper.toCommentDto(comment));
         }
-        List<Booking> nextBookings = bookingRepository
-                .findBookingsByItem_IdAndStartIsAfterOrderByStartDesc(itemDtoWithBooking.getId(),
-                        LocalDateTime.now());
-        if (!nextBookings.isEmpty()) {
-            BookingDtoForItem nextBooking = bookingMapper.toBookingDtoForItem(nextBookings.get(0));
-            itemDtoWithBooking.setNextBooking(nextBooking);
+        for (ItemCommentCount count : commentRepository.countByItemIds(itemsById.keySet())) {
+            itemsById.get(count.getItemId()).setCommentCount(count.getCount());
         }
+        result.sort(Comparator.comparing(ItemDtoWithBooking::getId));
+        return result;
     }
 
     @Override
@@ -120,7 +191,12 @@ public class ItemServiceImpl implements ItemService {
             item.setItemRequest(itemRequestRepository.findById(requestId)
                     .orElseThrow(() -> new StorageException("Incorrect RequestId")));
         }
-        return itemMapper.toItemDto(itemRepository.save(item));
+        item = itemRepository.save(item);
+        itemSearchEngine.index(item);
+        itemNameSuggester.index(item);
+        eventPublisher.publishEvent(new ItemSearchChangedEvent(item.getId(),
+                Arrays.asList(item.getName(), item.getDescription())));
+        return itemMapper.toItemDto(item);
     }
 
     @Override
@@ -129,19 +205,41 @@ public class ItemServiceImpl implements ItemService {
                 new StorageException("Вещи с Id = " + itemId + " нет в БД"));
         User user = userRepository.findById(userId).orElseThrow(() ->
                 new StorageException("Пользователя с Id = " + userId + " нет в БД"));
+        LocalDateTime now = LocalDateTime.now();
         List<Booking> bookings = bookingRepository
                 .searchBookingByBooker_IdAndItem_IdAndEndIsBeforeAndStatus(userId, itemId,
-                        LocalDateTime.now(), Status.APPROVED);
-        if (bookings.isEmpty()) {
+                        now, Status.APPROVED);
+        if (bookings.isEmpty() && !archivedBookingRepository
+                .existsByBooker_IdAndItem_IdAndEndIsBeforeAndStatus(userId, itemId, now, Status.APPROVED)) {
             throw new BookingException("Пользователь с Id = " + userId + " не брал в аренду вещь с Id = " + itemId);
         }
         Comment comment = commentMapper.toComment(commentDto);
         comment.setItem(item);
         comment.setAuthor(user);
         commentRepository.save(comment);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId));
         return commentMapper.toCommentDto(comment);
     }
 
+    @Override
+    public List<CommentDto> findComments(long itemId, PageCursor cursor, int size) {
+        itemRepository.findById(itemId).orElseThrow(() ->
+                new StorageException("Вещи с Id = " + itemId + " нет в БД"));
+        Pageable pageable = PageRequest.of(0, size);
+        List<ItemCommentView> comments;
+        if (cursor == null) {
+            comments = commentRepository.findRecentByItem_Id(itemId, pageable);
+        } else if (cursor.getKind() != CursorKind.COMMENTS) {
+            throw new CursorException("Курсор не относится к списку комментариев");
+        } else {
+            comments = commentRepository.findRecentByItem_IdBefore(itemId, cursor.getTime(), cursor.getId(),
+                    pageable);
+        }
+        return comments.stream()
+                .map(commentMapper::toCommentDto)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public ItemDto update(long userId, long id, ItemDto itemDto) {
 
@@ -149,6 +247,8 @@ public class ItemServiceImpl implements ItemService {
             Item oldItem = itemRepository.findById(id).orElseThrow();
 
             if (oldItem.getOwner().getId() == userId) {
+                List<String> oldTexts = Arrays.asList(oldItem.getName(), oldItem.getDescription());
+                Boolean oldAvailable = oldItem.getAvailable();
 
                 if (itemDto.getName() != null) {
                     oldItem.setName(itemDto.getName());
@@ -159,7 +259,16 @@ public class ItemServiceImpl implements ItemService {
                 if (itemDto.getAvailable() != null) {
                     oldItem.setAvailable(itemDto.getAvailable());
                 }
-                return itemMapper.toItemDto(itemRepository.save(oldItem));
+                Item item = itemRepository.save(oldItem);
+                itemSearchEngine.index(item);
+                itemNameSuggester.index(item);
+                eventPublisher.publishEvent(new ItemChangedEvent(id));
+                if (!oldTexts.equals(Arrays.asList(item.getName(), item.getDescription()))
+                        || !oldAvailable.equals(item.getAvailable())) {
+                    eventPublisher.publishEvent(new ItemSearchChangedEvent(id, Arrays.asList(oldTexts.get(0),
+                            oldTexts.get(1), item.getName(), item.getDescription())));
+                }
+                return itemMapper.toItemDto(item);
             } else {
                 throw new StorageException("Incorrect userId");
             }
@@ -170,20 +279,95 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public void deleteById(long itemId) {
+        Optional<Item> item = itemRepository.findById(itemId);
         itemRepository.deleteById(itemId);
+        itemSearchEngine.remove(itemId);
+        itemNameSuggester.remove(itemId);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId));
+        item.ifPresent(deleted -> eventPublisher.publishEvent(new ItemSearchChangedEvent(itemId,
+                Arrays.asList(deleted.getName(), deleted.getDescription()))));
     }
 
     @Override
     public List<ItemDto> searchItem(String text, int from, int size) {
         int page = from / size;
         Pageable pageable = PageRequest.of(page, size);
-        if (!text.isBlank()) {
-            return itemRepository.search(text, pageable)
-                    .stream()
-                    .filter(Item::getAvailable)
-                    .map(itemMapper::toItemDto)
-                    .collect(Collectors.toList());
+        String query = ItemSearchCache.normalize(text);
+        if (!query.isEmpty()) {
+            return itemSearchCache.getPage(query, pageable.getOffset(), size,
+                    () -> itemSearchEngine.search(query, pageable));
         }
         return Collections.emptyList();
     }
+
+    @Override
+    public List<ItemDto> searchItem(String text, PageCursor cursor, int size) {
+        String query = ItemSearchCache.normalize(text);
+        long afterId = cursor == null ? 0 : cursor.getId();
+        if (!query.isEmpty()) {
+            return itemSearchCache.getPageAfter(query, afterId, size,
+                    () -> itemSearchEngine.searchAfter(query, afterId, size));
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<String> suggest(String prefix, int size) {
+        return itemNameSuggester.suggest(prefix, size);
+    }
+
+    @Override
+    public List<IntervalDto> findAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            throw new BookingException("Incorrect end time");
+        }
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new StorageException("Вещи с Id = " + itemId + " нет в БД"));
+        if (!item.getAvailable()) {
+            return Collections.emptyList();
+        }
+        return freeIntervals(itemAvailabilityCache.getBusy(itemId, from, after -> findBusy(itemId, after)), from, to);
+    }
+
+    /**
+     * Занятые активными бронированиями интервалы, заканчивающиеся после after. Бронирования приходят
+     * по возрастанию начала, пересекающиеся и смежные склеиваются за один проход.
+     */
+    private List<IntervalDto> findBusy(long itemId, LocalDateTime after) {
+        List<IntervalDto> busy = new ArrayList<>();
+        for (BookingIntervalView booking : bookingRepository.findIntervalsEndingAfter(itemId, ACTIVE_STATUSES, after)) {
+            IntervalDto last = busy.isEmpty() ? null : busy.get(busy.size() - 1);
+            if (last != null && !booking.getStart().isAfter(last.getEnd())) {
+                if (booking.getEnd().isAfter(last.getEnd())) {
+                    last.setEnd(booking.getEnd());
+                }
+            } else {
+                busy.add(new IntervalDto(booking.getStart(), booking.getEnd()));
+            }
+        }
+        return busy;
+    }
+
+    /**
+     * Промежутки окна [from, to), не покрытые занятыми интервалами (упорядоченными и непересекающимися).
+     */
+    private static List<IntervalDto> freeIntervals(List<IntervalDto> busy, LocalDateTime from, LocalDateTime to) {
+        List<IntervalDto> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (IntervalDto interval : busy) {
+            if (!interval.getStart().isBefore(to)) {
+                break;
+            }
+            if (interval.getStart().isAfter(cursor)) {
+                free.add(new IntervalDto(cursor, interval.getStart()));
+            }
+            if (interval.getEnd().isAfter(cursor)) {
+                cursor = interval.getEnd();
+            }
+        }
+        if (cursor.isBefore(to)) {
+            free.add(new IntervalDto(cursor, to));
+        }
+        return free;
+    }
 }
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.pagination;
+
+/**
+ * Список, к которому относится курсор. Курсор одного списка другим не принимается.
+ */
+public enum CursorKind {
+    ITEMS(false),
+    SEARCH(false),
+    COMMENTS(true),
+    BOOKINGS(true),
+    REQUESTS(true);
+
+    private final boolean timed;
+
+    CursorKind(boolean timed) {
+        this.timed = timed;
+    }
+
+    /**
+     * Ключ списка - время и id, а не только id.
+     */
+    public boolean isTimed() {
+        return timed;
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import ru.practicum.shareit.exception.CursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Курсор keyset-пагинации: список, к которому он относится, и ключ последней строки страницы
+ * (время и id либо только id). Клиенту курсор отдаётся в заголовке X-Next-Cursor в виде непрозрачной
+ * base64url строки, пустой курсор означает первую страницу.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class PageCursor {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final char SEPARATOR = '~';
+
+    private final CursorKind kind;
+    private final LocalDateTime time;
+    private final long id;
+
+    private PageCursor(CursorKind kind, LocalDateTime time, long id) {
+        if (kind.isTimed() != (time != null)) {
+            throw new IllegalArgumentException("Ключ курсора " + kind + " не соответствует списку");
+        }
+        this.kind = kind;
+        this.time = time;
+        this.id = id;
+    }
+
+    public static PageCursor of(CursorKind kind, long id) {
+        return new PageCursor(kind, null, id);
+    }
+
+    public static PageCursor of(CursorKind kind, LocalDateTime time, long id) {
+        return new PageCursor(kind, time, id);
+    }
+
+    /**
+     * Курсор списка kind или null для первой страницы. Курсор другого списка или испорченный курсор
+     * отклоняется с CursorException.
+     */
+    public static PageCursor decode(String cursor, CursorKind kind) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        PageCursor decoded;
+        try {
+            String[] key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(String.valueOf(SEPARATOR), 3);
+            CursorKind decodedKind = CursorKind.valueOf(key[0]);
+            if (key.length == 3) {
+                decoded = of(decodedKind, LocalDateTime.parse(key[1]), Long.parseLong(key[2]));
+            } else if (key.length == 2) {
+                decoded = of(decodedKind, Long.parseLong(key[1]));
+            } else {
+                throw new IllegalArgumentException(cursor);
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new CursorException("Некорректный курсор: " + cursor);
+        }
+        if (decoded.kind != kind) {
+            throw new CursorException("Курсор не относится к этому списку: " + cursor);
+        }
+        return decoded;
+    }
+
+    /**
+     * Курсор следующей страницы или null, если страница неполная и продолжения нет.
+     */
+    public static <T> String next(List<T> page, int size, Function<T, PageCursor> key) {
+        if (page.isEmpty() || page.size() < size) {
+            return null;
+        }
+        return key.apply(page.get(page.size() - 1)).encode();
+    }
+
+    public String encode() {
+        String key = kind.name() + SEPARATOR + (time == null ? "" : time.toString() + SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+}
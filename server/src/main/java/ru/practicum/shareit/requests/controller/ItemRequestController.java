@@ -3,10 +3,13 @@ package ru.practicum.shareit.requests.controller;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.pagination.CursorKind;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 import ru.practicum.shareit.requests.dto.ItemRequestDtoWithItems;
 import ru.practicum.shareit.requests.service.ItemRequestService;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 
 /**
@@ -41,8 +44,20 @@ public class ItemRequestController {
     @GetMapping("/all")
     public List<ItemRequestDtoWithItems> findByRequestId(@RequestHeader("X-Sharer-User-Id") long userId,
                                                          @RequestParam(defaultValue = "0") int from,
-                                                         @RequestParam(defaultValue = "20") int size) {
-        return service.findAllWithPageable(userId, from, size);
+                                                         @RequestParam(defaultValue = "20") int size,
+                                                         @RequestParam(required = false) String cursor,
+                                                         HttpServletResponse response) {
+        if (cursor == null) {
+            return service.findAllWithPageable(userId, from, size);
+        }
+        List<ItemRequestDtoWithItems> itemRequests = service
+                .findAllWithPageable(userId, PageCursor.decode(cursor, CursorKind.REQUESTS), size);
+        String nextCursor = PageCursor.next(itemRequests, size,
+                itemRequest -> PageCursor.of(CursorKind.REQUESTS, itemRequest.getCreated(), itemRequest.getId()));
+        if (nextCursor != null) {
+            response.setHeader(PageCursor.NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return itemRequests;
     }
 
     @GetMapping("/{requestId}")
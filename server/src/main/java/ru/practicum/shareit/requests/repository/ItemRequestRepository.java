@@ -1,8 +1,11 @@
 package ru.practicum.shareit.requests.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.requests.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
@@ -10,4 +13,12 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
     List<ItemRequest> findAllByRequestor_IdOrderByCreatedDesc(long userId);
 
     List<ItemRequest> findAll();
+
+    List<ItemRequest> findAllByRequestor_IdNotOrderByCreatedAscIdAsc(long userId, Pageable pageable);
+
+    @Query("select r from ItemRequest r " +
+            "where r.requestor.id <> ?1 " +
+            " and (r.created > ?2 or (r.created = ?2 and r.id > ?3)) " +
+            "order by r.created, r.id")
+    List<ItemRequest> findAllAfter(long userId, LocalDateTime created, long requestId, Pageable pageable);
 }
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.requests.service;
 
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.requests.dto.ItemRequestDtoWithItems;
 
 import java.util.List;
@@ -14,5 +15,7 @@ public interface ItemRequestService {
 
     List<ItemRequestDtoWithItems> findAllWithPageable(long userId, int from, int size);
 
+    List<ItemRequestDtoWithItems> findAllWithPageable(long userId, PageCursor cursor, int size);
+
     void deleteById(long itemRequestId);
 }
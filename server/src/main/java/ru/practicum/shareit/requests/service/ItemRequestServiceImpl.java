@@ -4,9 +4,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.exception.CursorException;
 import ru.practicum.shareit.exception.StorageException;
+import ru.practicum.shareit.pagination.CursorKind;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 import ru.practicum.shareit.requests.dto.ItemRequestDtoWithItems;
 import ru.practicum.shareit.requests.dto.ItemRequestMapper;
@@ -65,12 +67,30 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Override
     public List<ItemRequestDtoWithItems> findAllWithPageable(long userId, int from, int size) {
         int page = from / size;
-        Pageable pageable = PageRequest.of(page, size, Sort.by("created"));
+        Pageable pageable = PageRequest.of(page, size);
         userRepository.findById(userId).orElseThrow(() ->
                 new StorageException("Пользователя с Id = " + userId + " нет в БД"));
-        return itemRequestRepository.findAll(pageable)
+        // свои запросы отсекаются в SQL, иначе страница после фильтра выходит короче size
+        return itemRequestRepository.findAllByRequestor_IdNotOrderByCreatedAscIdAsc(userId, pageable)
                 .stream()
-                .filter(itemRequest -> itemRequest.getRequestor().getId() != userId)
+                .map(mapper::toItemRequestDtoWithItems)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<ItemRequestDtoWithItems> findAllWithPageable(long userId, PageCursor cursor, int size) {
+        userRepository.findById(userId).orElseThrow(() ->
+                new StorageException("Пользователя с Id = " + userId + " нет в БД"));
+        Pageable pageable = PageRequest.of(0, size);
+        List<ItemRequest> itemRequests;
+        if (cursor == null) {
+            itemRequests = itemRequestRepository.findAllByRequestor_IdNotOrderByCreatedAscIdAsc(userId, pageable);
+        } else if (cursor.getKind() != CursorKind.REQUESTS) {
+            throw new CursorException("Курсор не относится к списку запросов");
+        } else {
+            itemRequests = itemRequestRepository.findAllAfter(userId, cursor.getTime(), cursor.getId(), pageable);
+        }
+        return itemRequests.stream()
                 .map(mapper::toItemRequestDtoWithItems)
                 .collect(Collectors.toList());
     }
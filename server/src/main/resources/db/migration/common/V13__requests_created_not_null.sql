@@ -0,0 +1,4 @@
+-- курсор списка запросов ищет по (created, request_id): запрос без created до него не дойдёт
+UPDATE requests SET created = COALESCE((SELECT MIN(r.created) FROM requests r), CURRENT_TIMESTAMP)
+WHERE created IS NULL;
+ALTER TABLE requests ALTER COLUMN created SET NOT NULL;
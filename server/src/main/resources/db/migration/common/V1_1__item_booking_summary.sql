@@ -0,0 +1,15 @@
+CREATE TABLE IF NOT EXISTS item_booking_summary (
+                                        item_id BIGINT PRIMARY KEY,
+                                        last_booking_id BIGINT,
+                                        last_booker_id BIGINT,
+                                        next_booking_id BIGINT,
+                                        next_booker_id BIGINT,
+                                        valid_until timestamp WITHOUT TIME ZONE,
+                                        CONSTRAINT fk_summary_to_items FOREIGN KEY(item_id)
+                                            REFERENCES items(item_id) ON DELETE CASCADE,
+                                        CONSTRAINT fk_summary_last_to_bookings FOREIGN KEY(last_booking_id)
+                                            REFERENCES bookings(booking_id) ON DELETE SET NULL,
+                                        CONSTRAINT fk_summary_next_to_bookings FOREIGN KEY(next_booking_id)
+                                            REFERENCES bookings(booking_id) ON DELETE SET NULL
+);
+CREATE INDEX IF NOT EXISTS idx_item_booking_summary_valid_until ON item_booking_summary(valid_until);
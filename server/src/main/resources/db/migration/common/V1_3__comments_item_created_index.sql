@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments(item_id, created DESC, comment_id DESC);
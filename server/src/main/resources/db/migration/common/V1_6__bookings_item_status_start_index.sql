@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings(item_id, status, start_date DESC);
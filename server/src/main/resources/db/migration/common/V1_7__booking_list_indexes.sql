@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings(booker_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings(booker_id, status, start_date DESC);
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items(owner_id);
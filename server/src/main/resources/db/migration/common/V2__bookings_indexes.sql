@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_bookings_item_end ON bookings(item_id, end_date DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_item_end ON bookings(booker_id, item_id, end_date);
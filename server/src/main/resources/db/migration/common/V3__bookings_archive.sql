@@ -0,0 +1,17 @@
+CREATE TABLE IF NOT EXISTS bookings_archive (
+                                        booking_id BIGINT PRIMARY KEY,
+                                        start_date timestamp WITHOUT TIME ZONE NOT NULL,
+                                        end_date timestamp WITHOUT TIME ZONE NOT NULL,
+                                        item_id BIGINT,
+                                        booker_id BIGINT,
+                                        status varchar(9) NOT NULL,
+                                        CONSTRAINT fk_bookings_archive_to_items FOREIGN KEY(item_id)
+                                            REFERENCES items(item_id),
+                                        CONSTRAINT fk_bookings_archive_to_users FOREIGN KEY(booker_id)
+                                            REFERENCES users(user_id)
+);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_start ON bookings_archive(item_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_booker_start ON bookings_archive(booker_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_booker_status_start ON bookings_archive(booker_id, status, start_date DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_booker_item_end ON bookings_archive(booker_id, item_id, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_end ON bookings(end_date);
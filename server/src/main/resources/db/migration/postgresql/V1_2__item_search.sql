@@ -0,0 +1,8 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', item_name || ' ' || description)) STORED;
+CREATE INDEX IF NOT EXISTS idx_items_available ON items(available) WHERE available;
+CREATE INDEX IF NOT EXISTS idx_items_search_vector ON items USING GIN (search_vector) WHERE available;
+CREATE INDEX IF NOT EXISTS idx_items_name_trgm ON items USING GIN (item_name gin_trgm_ops) WHERE available;
+CREATE INDEX IF NOT EXISTS idx_items_description_trgm ON items USING GIN (description gin_trgm_ops) WHERE available;
@@ -0,0 +1,28 @@
+-- До этой миграции пересечения ничем не запрещались. Данные здесь не правятся:
+-- если конфликтующие бронирования есть, миграция падает и перечисляет их,
+-- чтобы оператор сам решил, какие из них отменить.
+DO $$
+DECLARE
+    conflicts TEXT;
+BEGIN
+    SELECT string_agg(format('item %s: %s (%s) и %s (%s)',
+                             b.item_id, b.booking_id, b.status, o.booking_id, o.status), E'\n'
+                      ORDER BY b.item_id, b.booking_id, o.booking_id)
+    INTO conflicts
+    FROM bookings b
+             JOIN bookings o ON o.item_id = b.item_id AND o.booking_id > b.booking_id
+        AND o.start_date < b.end_date AND o.end_date > b.start_date
+    WHERE b.status IN ('WAITING', 'APPROVED')
+      AND o.status IN ('WAITING', 'APPROVED');
+    IF conflicts IS NOT NULL THEN
+        RAISE EXCEPTION 'Пересекающиеся бронирования мешают создать bookings_no_overlap'
+            USING DETAIL = conflicts,
+                HINT = 'Отмените лишние бронирования (status = ''CANCELED'') и повторите миграцию';
+    END IF;
+END $$;
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+ALTER TABLE bookings DROP CONSTRAINT IF EXISTS bookings_no_overlap;
+ALTER TABLE bookings ADD CONSTRAINT bookings_no_overlap
+    EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+    WHERE (status IN ('WAITING', 'APPROVED'));
@@ -10,7 +10,11 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoShort;
 import ru.practicum.shareit.booking.dto.BookingDtoSimple;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
@@ -62,8 +66,8 @@ class BookingControllerTest {
 
     @Test
     void findAll() throws Exception {
-        List<BookingDto> bookingDtos = new ArrayList<>();
-        BookingDto bookingDto = bookingMapper.toBookingDto(booking);
+        List<BookingDtoShort> bookingDtos = new ArrayList<>();
+        BookingDtoShort bookingDto = bookingMapper.toBookingDtoShort(booking);
         bookingDtos.add(bookingDto);
         when(bookingService.findAll(bookingDto.getBooker().getId(), "ALL", 0, 20))
                 .thenReturn(bookingDtos);
@@ -73,38 +77,74 @@ class BookingControllerTest {
                         .param("from", "0")
                         .param("size", "20"))
                 .andExpect(status().isOk())
-                .andExpect(content().json("[{\"id\": 1," +
-                        " \"item\": {\"id\": 1,\"name\": \"item\"," +
-                        " \"description\": \"description\", \"available\": true," +
-                        " \"owner\": {\"id\": 1,\"name\": \"user1\",\"email\": \"user1@mail.ru\"}," +
-                        " \"itemRequest\": null}," +
-                        " \"booker\": {\"id\": 2,\"name\": \"user2\",\"email\": \"user2@mail.ru\"}}]"));
+                .andExpect(content().json("[{\"id\": 1, \"status\": \"APPROVED\"," +
+                        " \"start\": \"2022-09-10T10:42:00\", \"end\": \"2022-09-12T10:42:00\"," +
+                        " \"item\": {\"id\": 1,\"name\": \"item\"}," +
+                        " \"booker\": {\"id\": 2}}]", true));
         verify(bookingService, times(1))
                 .findAll(bookingDto.getBooker().getId(), "ALL", 0, 20);
     }
 
     @Test
     void findAllByOwner() throws Exception {
-        List<BookingDto> bookingDtos = new ArrayList<>();
-        BookingDto bookingDto = bookingMapper.toBookingDto(booking);
+        List<BookingDtoShort> bookingDtos = new ArrayList<>();
+        BookingDtoShort bookingDto = bookingMapper.toBookingDtoShort(booking);
         bookingDtos.add(bookingDto);
-        when(bookingService.findAllByItemOwnerId(bookingDto.getItem().getOwner().getId(),
+        when(bookingService.findAllByItemOwnerId(booking.getItem().getOwner().getId(),
                 "ALL", 0, 20))
                 .thenReturn(bookingDtos);
         mockMvc.perform(get("/bookings/owner")
-                        .header("X-Sharer-User-Id", bookingDto.getItem().getOwner().getId())
+                        .header("X-Sharer-User-Id", booking.getItem().getOwner().getId())
                         .param("state", "ALL")
                         .param("from", "0")
                         .param("size", "20"))
                 .andExpect(status().isOk())
-                .andExpect(content().json("[{\"id\": 1," +
-                        " \"item\": {\"id\": 1,\"name\": \"item\"," +
-                        " \"description\": \"description\", \"available\": true," +
-                        " \"owner\": {\"id\": 1,\"name\": \"user1\",\"email\": \"user1@mail.ru\"}," +
-                        " \"itemRequest\": null}," +
-                        " \"booker\": {\"id\": 2,\"name\": \"user2\",\"email\": \"user2@mail.ru\"}}]"));
+                .andExpect(content().json("[{\"id\": 1, \"status\": \"APPROVED\"," +
+                        " \"start\": \"2022-09-10T10:42:00\", \"end\": \"2022-09-12T10:42:00\"," +
+                        " \"item\": {\"id\": 1,\"name\": \"item\"}," +
+                        " \"booker\": {\"id\": 2}}]", true));
         verify(bookingService, times(1))
-                .findAllByItemOwnerId(bookingDto.getItem().getOwner().getId(), "ALL", 0, 20);
+                .findAllByItemOwnerId(booking.getItem().getOwner().getId(), "ALL", 0, 20);
+    }
+
+    @Test
+    void createAll() throws Exception {
+        booking.setStart(LocalDateTime.now().plusDays(1));
+        booking.setEnd(LocalDateTime.now().plusDays(2));
+        List<BookingDtoSimple> bookingDtos = List.of(bookingMapper.toBookingDtoSimple(booking),
+                bookingMapper.toBookingDtoSimple(booking));
+        when(bookingService.saveAll(bookingDtos, 2)).thenReturn(List.of(
+                BookingBatchResultDto.created(0, bookingMapper.toBookingDto(booking)),
+                BookingBatchResultDto.rejected(1, "BOOKING_CONFLICT", "Вещь с Id = 1 уже забронирована на это время")));
+        mockMvc.perform(post("/bookings/batch")
+                        .content(mapper.writeValueAsString(bookingDtos))
+                        .header("X-Sharer-User-Id", 2)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"index\": 0, \"booking\": {\"id\": 1}, \"error\": null}," +
+                        " {\"index\": 1, \"booking\": null, \"error\": \"BOOKING_CONFLICT\"}]"));
+        verify(bookingService, times(1)).saveAll(bookingDtos, 2);
+    }
+
+    @Test
+    void decide() throws Exception {
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, false));
+        when(bookingService.decideAll(1, decisions)).thenReturn(List.of(
+                BookingDecisionResultDto.applied(1L, APPROVED),
+                BookingDecisionResultDto.rejected(2L, "NOT_FOUND", "Бронирования с Id = 2 нет в БД")));
+        mockMvc.perform(patch("/bookings/owner/decisions")
+                        .content(mapper.writeValueAsString(decisions))
+                        .header("X-Sharer-User-Id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"bookingId\": 1, \"status\": \"APPROVED\", \"error\": null}," +
+                        " {\"bookingId\": 2, \"status\": null, \"error\": \"NOT_FOUND\"}]"));
+        verify(bookingService, times(1)).decideAll(1, decisions);
     }
 
     @Test
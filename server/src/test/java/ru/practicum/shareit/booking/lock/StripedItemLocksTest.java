@@ -0,0 +1,74 @@
+package ru.practicum.shareit.booking.lock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedItemLocksTest {
+
+    private MeterRegistry meterRegistry;
+    private StripedItemLocks locks;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        locks = new StripedItemLocks(64, meterRegistry);
+    }
+
+    @Test
+    void sameItemWaitsDifferentItemProceeds() throws Exception {
+        long otherItemId = 2;
+        while (locks.stripe(otherItemId) == locks.stripe(1L)) {
+            otherItemId++;
+        }
+        long otherItem = otherItemId;
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            executor.submit(() -> locks.withLock(1L, () -> {
+                locked.countDown();
+                await(release);
+                return null;
+            }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+            Future<Boolean> sameItem = executor.submit(() -> locks.withLock(1L, () -> true));
+            Future<Boolean> differentItem = executor.submit(() -> locks.withLock(otherItem, () -> true));
+            assertTrue(differentItem.get(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            assertFalse(sameItem.isDone());
+            release.countDown();
+            assertTrue(sameItem.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(3.0, meterRegistry.get("shareit.item.lock.acquired").counter().count());
+        assertEquals(1.0, meterRegistry.get("shareit.item.lock.contended").counter().count());
+        assertEquals(1, meterRegistry.get("shareit.item.lock.wait").timer().count());
+    }
+
+    @Test
+    void releasesLockOnException() {
+        assertThrows(IllegalStateException.class, () -> locks.withLock(1L, () -> {
+            throw new IllegalStateException();
+        }));
+        assertFalse(locks.stripe(1L).isLocked());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.pagination.CursorKind;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Для каждого сочетания роли и состояния берёт SQL, который Hibernate построил по критериям,
+ * и проверяет план H2: ни одна таблица не читается полным просмотром, а join только один -
+ * вещь ради названия в BookingDtoShort. Проверяются и путь с курсором, и путь со смещением.
+ */
+@DataJpaTest(properties = RecordingStatementInspector.PROPERTY)
+class BookingQueryPlanTest {
+
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    DataSource dataSource;
+
+    @BeforeEach
+    void beforeEach() {
+        RecordingStatementInspector.clear();
+    }
+
+    static Stream<Arguments> combinations() {
+        return Stream.of(BookingRole.values())
+                .flatMap(role -> Stream.of(Status.ALL, Status.CURRENT, Status.PAST, Status.FUTURE,
+                                Status.WAITING, Status.REJECTED)
+                        .map(state -> Arguments.of(role, state)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("combinations")
+    void findPageUsesIndexes(BookingRole role, Status state) {
+        bookingRepository.findPage(role, 1L, state, LocalDateTime.now(), PageCursor.of(CursorKind.BOOKINGS,
+                LocalDateTime.now(), Long.MAX_VALUE), 20);
+
+        List<String> queries = RecordingStatementInspector.bookingQueries();
+        assertEquals(1, queries.size(), queries::toString);
+        String sql = queries.get(0);
+        // вещи владельца - только в подзапросе отбора
+        assertEquals(1, count(sql, " join "), sql);
+        assertEquals(0, count(sql, " public.users "), sql);
+        assertEquals(1, count(sql, " public.bookings "), sql);
+        assertEquals(role == BookingRole.OWNER ? 2 : 1, count(sql, " public.items "), sql);
+
+        String userColumn = role == BookingRole.OWNER ? "OWNER_ID" : "BOOKER_ID";
+        assertIndexed(sql, userColumn);
+
+        // закончившиеся бронирования могут лежать в архиве: его запрос строится так же
+        List<String> archiveQueries = RecordingStatementInspector.archiveQueries();
+        assertEquals(archived(state) ? 1 : 0, archiveQueries.size(), archiveQueries::toString);
+        for (String archiveSql : archiveQueries) {
+            assertIndexed(archiveSql, userColumn);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("combinations")
+    void findOffsetPageUsesIndexes(BookingRole role, Status state) {
+        bookingRepository.findPage(role, 1L, state, LocalDateTime.now(), 40, 20);
+
+        // с архивом - один запрос UNION ALL по обеим таблицам, смещение применяется в базе
+        List<String> queries = RecordingStatementInspector.bookingQueries();
+        assertEquals(1, queries.size(), queries::toString);
+        String sql = queries.get(0);
+        assertEquals(archived(state) ? 1 : 0, RecordingStatementInspector.archiveQueries().size(), sql);
+        assertEquals(1, count(sql, " join "), sql);
+        assertIndexed(sql, role == BookingRole.OWNER ? "OWNER_ID" : "BOOKER_ID");
+    }
+
+    private static boolean archived(Status state) {
+        return state == Status.ALL || state == Status.PAST || state == Status.REJECTED;
+    }
+
+    private void assertIndexed(String sql, String userColumn) {
+        String plan = String.join("\n", new JdbcTemplate(dataSource).queryForList("EXPLAIN " + sql, String.class));
+        assertFalse(plan.contains("tableScan"), plan);
+        assertTrue(plan.matches("(?s).*: " + userColumn + " = \\?[0-9]+.*"), plan);
+    }
+
+    private static int count(String sql, String token) {
+        String normalized = RecordingStatementInspector.normalize(sql);
+        int count = 0;
+        for (int i = normalized.indexOf(token); i >= 0; i = normalized.indexOf(token, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
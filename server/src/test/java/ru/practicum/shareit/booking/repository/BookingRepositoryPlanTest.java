@@ -0,0 +1,163 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * На заполненной базе вызывает каждый запрос BookingRepository и проверяет по EXPLAIN,
+ * что bookings не читается полным просмотром: новый запрос без подходящего индекса
+ * или изменённый индекс уронят тест.
+ */
+@DataJpaTest(properties = RecordingStatementInspector.PROPERTY)
+class BookingRepositoryPlanTest {
+
+    private static final int USERS = 10;
+    private static final int ITEMS = 50;
+    private static final int BOOKINGS = 200;
+    private static final Set<Status> ACTIVE = Set.of(Status.WAITING, Status.APPROVED);
+
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    DataSource dataSource;
+    @Autowired
+    EntityManager entityManager;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private final List<Booking> bookings = new ArrayList<>();
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void beforeEach() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(userRepository.save(new User(null, "user" + i, "user" + i + "@mail.ru")));
+        }
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(itemRepository.save(new Item(null, "item" + i, "description" + i, true,
+                    users.get(i % USERS), null)));
+        }
+        Status[] statuses = {Status.WAITING, Status.APPROVED, Status.REJECTED, Status.CANCELED};
+        for (int i = 0; i < BOOKINGS; i++) {
+            LocalDateTime start = now.minusDays(BOOKINGS / 2).plusDays(i);
+            bookings.add(new Booking(null, start, start.plusHours(12), items.get(i % ITEMS),
+                    users.get((i + 1) % USERS), statuses[i % statuses.length]));
+        }
+        bookingRepository.saveAll(bookings);
+        item = items.get(0);
+        owner = item.getOwner();
+        booker = users.get(1);
+        entityManager.flush();
+        entityManager.clear();
+        RecordingStatementInspector.clear();
+    }
+
+    static Stream<Arguments> queries() {
+        return Stream.of(
+                query("findById", (repository, test) -> repository.findById(test.bookingId())),
+                query("updateStatusIfCurrent", (repository, test) -> repository.updateStatusIfCurrent(
+                        test.bookingId(), test.owner.getId(), Status.WAITING, Status.APPROVED)),
+                query("findIntervalsOverlapping", (repository, test) -> repository.findIntervalsOverlapping(
+                        Set.of(test.item.getId()), ACTIVE, test.now, test.now.plusDays(1))),
+                query("findIntervalsEndingAfter", (repository, test) -> repository.findIntervalsEndingAfter(
+                        test.item.getId(), ACTIVE, test.now)),
+                query("findApprovalViewById", (repository, test) -> repository.findApprovalViewById(
+                        test.bookingId())),
+                query("findApprovalViewsByIdIn", (repository, test) -> repository.findApprovalViewsByIdIn(
+                        test.bookingIds())),
+                query("decideIfCurrent", (repository, test) -> repository.decideIfCurrent(test.bookingIds(),
+                        test.owner.getId(), Status.WAITING, Set.of(test.bookingId()), Status.APPROVED,
+                        Status.REJECTED)),
+                query("updateStatusesIfCurrent", (repository, test) -> repository.updateStatusesIfCurrent(
+                        test.bookingIds(), test.owner.getId(), Status.WAITING, Status.REJECTED)),
+                query("updateStatusesIfCurrent (expiry)", (repository, test) ->
+                        repository.updateStatusesIfCurrent(test.bookingIds(), Status.WAITING, Status.CANCELED)),
+                query("findByStatusAndStartBefore", (repository, test) -> repository.findByStatusAndStartBefore(
+                        Status.WAITING, test.now, PageRequest.of(0, 10))),
+                query("findFirstStartByStatusAndStartBefore", (repository, test) ->
+                        repository.findFirstStartByStatusAndStartBefore(Status.WAITING, test.now)),
+                query("searchBookingByBooker_IdAndItem_IdAndEndIsBeforeAndStatus", (repository, test) ->
+                        repository.searchBookingByBooker_IdAndItem_IdAndEndIsBeforeAndStatus(test.booker.getId(),
+                                test.item.getId(), test.now, Status.APPROVED)),
+                query("findLastBookingsByItem_Id", (repository, test) -> repository.findLastBookingsByItem_Id(
+                        test.item.getId(), test.now, PageRequest.of(0, 1))),
+                query("findNextBookingsByItem_Id", (repository, test) -> repository.findNextBookingsByItem_Id(
+                        test.item.getId(), test.now, PageRequest.of(0, 1))),
+                query("findFirstStartByItemEndingAfter", (repository, test) ->
+                        repository.findFirstStartByItemEndingAfter(test.item.getId(), ACTIVE, test.now)),
+                query("findNextChangeByItem_Id", (repository, test) -> repository.findNextChangeByItem_Id(
+                        test.item.getId(), test.now)),
+                query("findLastAndNextBookingsByItemIds", (repository, test) ->
+                        repository.findLastAndNextBookingsByItemIds(Set.of(test.item.getId()), test.now))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    void queryDoesNotScanBookings(String name, BiConsumer<BookingRepository, BookingRepositoryPlanTest> query) {
+        query.accept(bookingRepository, this);
+
+        List<String> statements = RecordingStatementInspector.bookingQueries();
+        assertFalse(statements.isEmpty(), name);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        for (String sql : statements) {
+            String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+            assertFalse(plan.contains("BOOKINGS.tableScan"), name + "\n" + plan);
+        }
+    }
+
+    @Test
+    void overlapCheckSeeksByItemAndEnd() {
+        bookingRepository.findFirstStartByItemEndingAfter(item.getId(), ACTIVE, now);
+
+        // диапазон по end_date: прошедшие бронирования вещи не читаются
+        List<String> statements = RecordingStatementInspector.bookingQueries();
+        assertEquals(1, statements.size(), statements::toString);
+        String plan = String.join("\n", new JdbcTemplate(dataSource).queryForList("EXPLAIN " + statements.get(0),
+                String.class));
+        assertTrue(plan.matches("(?s).*IDX_BOOKINGS_ITEM_END: .*END_DATE > \\?[0-9]+.*"), plan);
+    }
+
+    private static Arguments query(String name, BiConsumer<BookingRepository, BookingRepositoryPlanTest> query) {
+        return Arguments.of(name, query);
+    }
+
+    private long bookingId() {
+        return bookings.get(0).getId();
+    }
+
+    private Set<Long> bookingIds() {
+        return Set.of(bookings.get(0).getId(), bookings.get(ITEMS).getId(), bookings.get(2 * ITEMS).getId());
+    }
+}
@@ -1,20 +1,38 @@
 package ru.practicum.shareit.booking.repository;
 
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.dto.BookingApprovalView;
+import ru.practicum.shareit.booking.dto.BookingDtoForItem;
+import ru.practicum.shareit.booking.dto.BookingDtoShort;
+import ru.practicum.shareit.booking.dto.BookingIntervalView;
+import ru.practicum.shareit.booking.dto.BookingItemView;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.enums.BookingRole;
 import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.CursorKind;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -27,6 +45,10 @@ class BookingRepositoryTest {
     UserRepository userRepository;
     @Autowired
     BookingRepository bookingRepository;
+    @Autowired
+    ArchivedBookingRepository archivedBookingRepository;
+    @Autowired
+    EntityManager entityManager;
 
     private Item item;
     private User owner;
@@ -46,27 +68,28 @@ class BookingRepositoryTest {
 
     @AfterEach
     void afterEach() {
+        archivedBookingRepository.deleteAll();
         bookingRepository.deleteAll();
         itemRepository.deleteAll();
         userRepository.deleteAll();
     }
 
     @Test
-    void findByBooker_Id() {
-        final List<Booking> bookings = bookingRepository.findByBooker_Id(booker.getId(),
-                Pageable.unpaged());
+    void findBookerAll() {
+        final List<BookingDtoShort> bookings = bookingRepository
+                .findPage(BookingRole.BOOKER, booker.getId(), Status.ALL, LocalDateTime.now(), 0, 20);
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
-        assertSame(booking, bookings.get(0));
+        assertEquals(booking.getId(), bookings.get(0).getId());
     }
 
     @Test
-    void searchBookingByItem_Owner_Id() {
-        final List<Booking> bookings = bookingRepository.searchBookingByItem_Owner_Id(owner.getId(),
-                Pageable.unpaged());
+    void findOwnerAll() {
+        final List<BookingDtoShort> bookings = bookingRepository
+                .findPage(BookingRole.OWNER, owner.getId(), Status.ALL, LocalDateTime.now(), 0, 20);
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
-        assertSame(booking, bookings.get(0));
+        assertEquals(booking.getId(), bookings.get(0).getId());
     }
 
     @Test
@@ -82,11 +105,9 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void searchBookingByItem_Owner_IdAndStartIsAfter() {
-        List<Booking> bookings = bookingRepository
-                .searchBookingByItem_Owner_IdAndStartIsAfter(owner.getId(),
-                        LocalDateTime.now(),
-                        Pageable.unpaged());
+    void findOwnerFuture() {
+        List<BookingDtoShort> bookings = bookingRepository
+                .findPage(BookingRole.OWNER, owner.getId(), Status.FUTURE, LocalDateTime.now(), 0, 20);
         assertNotNull(bookings);
         assertEquals(0, bookings.size());
 
@@ -94,20 +115,16 @@ class BookingRepositoryTest {
                 LocalDateTime.now().plusDays(10),
                 item, booker, Status.APPROVED));
         bookings = bookingRepository
-                .searchBookingByItem_Owner_IdAndStartIsAfter(owner.getId(),
-                        LocalDateTime.now(),
-                        Pageable.unpaged());
+                .findPage(BookingRole.OWNER, owner.getId(), Status.FUTURE, LocalDateTime.now(), 0, 20);
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
-        assertSame(booking1, bookings.get(0));
+        assertEquals(booking1.getId(), bookings.get(0).getId());
     }
 
     @Test
-    void findByBooker_IdAndStartAfter() {
-        List<Booking> bookings = bookingRepository
-                .findByBooker_IdAndStartAfter(booker.getId(),
-                        LocalDateTime.now(),
-                        Pageable.unpaged());
+    void findBookerFuture() {
+        List<BookingDtoShort> bookings = bookingRepository
+                .findPage(BookingRole.BOOKER, booker.getId(), Status.FUTURE, LocalDateTime.now(), 0, 20);
         assertNotNull(bookings);
         assertEquals(0, bookings.size());
 
@@ -116,29 +133,29 @@ class BookingRepositoryTest {
                 LocalDateTime.now().plusDays(10),
                 item, booker, Status.APPROVED));
         bookings = bookingRepository
-                .findByBooker_IdAndStartAfter(booker.getId(),
-                        LocalDateTime.now(),
-                        Pageable.unpaged());
+                .findPage(BookingRole.BOOKER, booker.getId(), Status.FUTURE, LocalDateTime.now(), 0, 20);
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
-        assertSame(booking1, bookings.get(0));
+        assertEquals(booking1.getId(), bookings.get(0).getId());
     }
 
     @Test
-    void findBookingsByItem_IdAndEndIsBeforeOrderByEndDesc() {
-        final List<Booking> bookings = bookingRepository
-                .findBookingsByItem_IdAndEndIsBeforeOrderByEndDesc(item.getId(),
-                        LocalDateTime.now());
+    void findLastBookingsByItem_Id() {
+        final List<BookingDtoForItem> bookings = bookingRepository
+                .findLastBookingsByItem_Id(item.getId(),
+                        LocalDateTime.now(),
+                        PageRequest.of(0, 1));
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
-        assertSame(booking, bookings.get(0));
+        assertEquals(new BookingDtoForItem(booking.getId(), booker.getId()), bookings.get(0));
     }
 
     @Test
-    void findBookingsByItem_IdAndStartIsAfterOrderByStartDesc() {
-        List<Booking> bookings = bookingRepository
-                .findBookingsByItem_IdAndStartIsAfterOrderByStartDesc(item.getId(),
-                        LocalDateTime.now());
+    void findNextBookingsByItem_Id() {
+        List<BookingDtoForItem> bookings = bookingRepository
+                .findNextBookingsByItem_Id(item.getId(),
+                        LocalDateTime.now(),
+                        PageRequest.of(0, 1));
         assertNotNull(bookings);
         assertEquals(0, bookings.size());
 
@@ -147,40 +164,147 @@ class BookingRepositoryTest {
                 LocalDateTime.now().plusDays(10),
                 item, booker, Status.APPROVED));
         bookings = bookingRepository
-                .findBookingsByItem_IdAndStartIsAfterOrderByStartDesc(item.getId(),
-                        LocalDateTime.now());
+                .findNextBookingsByItem_Id(item.getId(),
+                        LocalDateTime.now(),
+                        PageRequest.of(0, 1));
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
-        assertSame(booking1, bookings.get(0));
+        assertEquals(new BookingDtoForItem(booking1.getId(), booker.getId()), bookings.get(0));
     }
 
     @Test
-    void findBookingsByBooker_IdAndStatus() {
-        final List<Booking> bookings = bookingRepository
-                .findBookingsByBooker_IdAndStatus(booker.getId(),
-                        Status.APPROVED,
-                        Pageable.unpaged());
+    void findNextChangeByItem_Id() {
+        final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        assertNull(bookingRepository.findNextChangeByItem_Id(item.getId(), now));
+
+        final Booking current = bookingRepository.save(new Booking(2L,
+                now.minusDays(1),
+                now.plusDays(3),
+                item, booker, Status.APPROVED));
+        final Booking future = bookingRepository.save(new Booking(3L,
+                now.plusDays(1),
+                now.plusDays(2),
+                item, booker, Status.APPROVED));
+        assertEquals(future.getStart(), bookingRepository.findNextChangeByItem_Id(item.getId(), now));
+        assertEquals(current.getEnd(), bookingRepository.findNextChangeByItem_Id(item.getId(),
+                future.getEnd().plusHours(1)));
+    }
+
+    @Test
+    void findFirstStartByItemEndingAfter() {
+        final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        final Set<Status> active = EnumSet.of(Status.WAITING, Status.APPROVED);
+        bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(10),
+                item, booker, Status.WAITING));
+        bookingRepository.save(new Booking(null, now.plusDays(2), now.plusDays(3),
+                item, booker, Status.APPROVED));
+        bookingRepository.save(new Booking(null, now.minusDays(1), now.plusDays(12),
+                item, booker, Status.REJECTED));
+        // короткое вложенное бронирование не скрывает длинное, начавшееся раньше
+        assertEquals(now.plusDays(1), bookingRepository.findFirstStartByItemEndingAfter(item.getId(), active,
+                now.plusDays(5)));
+        assertNull(bookingRepository.findFirstStartByItemEndingAfter(item.getId(), active, now.plusDays(10)));
+    }
+
+    @Test
+    void insertAllAndFindIntervalsOverlapping() {
+        final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Booking first = new Booking(null, now.plusDays(1), now.plusDays(2), item, booker, Status.WAITING);
+        Booking second = new Booking(null, now.plusDays(3), now.plusDays(4), item, booker, Status.WAITING);
+        bookingRepository.insertAll(List.of(first, second));
+        assertNotNull(first.getId());
+        assertEquals(first.getId() + 1, second.getId());
+        assertEquals(now.plusDays(3), bookingRepository.findById(second.getId()).orElseThrow().getStart());
+        List<BookingIntervalView> intervals = bookingRepository.findIntervalsOverlapping(List.of(item.getId()),
+                EnumSet.of(Status.WAITING, Status.APPROVED), now.plusDays(2).minusHours(1), now.plusDays(5));
+        assertEquals(2, intervals.size());
+        assertTrue(bookingRepository.findIntervalsOverlapping(List.of(item.getId()),
+                EnumSet.of(Status.WAITING), now.plusDays(2), now.plusDays(3)).isEmpty());
+    }
+
+    @Test
+    void decideIfCurrent() {
+        final LocalDateTime now = LocalDateTime.now();
+        Booking first = bookingRepository.save(new Booking(2L, now.plusDays(1), now.plusDays(2),
+                item, booker, Status.WAITING));
+        Booking second = bookingRepository.save(new Booking(3L, now.plusDays(3), now.plusDays(4),
+                item, booker, Status.WAITING));
+        List<Long> ids = List.of(first.getId(), second.getId(), booking.getId());
+        assertEquals(0, bookingRepository.decideIfCurrent(ids, booker.getId(), Status.WAITING,
+                List.of(first.getId()), Status.APPROVED, Status.REJECTED));
+        assertEquals(2, bookingRepository.decideIfCurrent(ids, owner.getId(), Status.WAITING,
+                List.of(first.getId()), Status.APPROVED, Status.REJECTED));
+        entityManager.clear();
+        assertEquals(List.of(Status.APPROVED, Status.APPROVED, Status.REJECTED),
+                bookingRepository.findApprovalViewsByIdIn(ids).stream()
+                        .sorted(Comparator.comparing(BookingApprovalView::getId))
+                        .map(BookingApprovalView::getStatus)
+                        .collect(Collectors.toList()));
+        assertEquals(0, bookingRepository.updateStatusesIfCurrent(ids, owner.getId(), Status.WAITING,
+                Status.REJECTED));
+    }
+
+    @Test
+    void updateStatusIfCurrent() {
+        Booking waiting = bookingRepository.save(new Booking(2L, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), item, booker, Status.WAITING));
+        assertEquals(0, bookingRepository.updateStatusIfCurrent(waiting.getId(), booker.getId(),
+                Status.WAITING, Status.APPROVED));
+        assertEquals(1, bookingRepository.updateStatusIfCurrent(waiting.getId(), owner.getId(),
+                Status.WAITING, Status.APPROVED));
+        assertEquals(0, bookingRepository.updateStatusIfCurrent(waiting.getId(), owner.getId(),
+                Status.WAITING, Status.REJECTED));
+        entityManager.clear();
+        BookingApprovalView view = bookingRepository.findApprovalViewById(waiting.getId()).orElseThrow();
+        assertEquals(Status.APPROVED, view.getStatus());
+        assertEquals(owner.getId(), view.getOwnerId());
+        assertTrue(bookingRepository.findApprovalViewById(waiting.getId() + 100).isEmpty());
+    }
+
+    @Test
+    void findBookerByStatus() {
+        final Booking waiting = bookingRepository.save(new Booking(null, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), item, booker, Status.WAITING));
+        final List<BookingDtoShort> bookings = bookingRepository
+                .findPage(BookingRole.BOOKER, booker.getId(), Status.WAITING, LocalDateTime.now(), 0, 20);
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
-        assertSame(booking, bookings.get(0));
+        assertEquals(waiting.getId(), bookings.get(0).getId());
     }
 
     @Test
-    void findBookingsByItem_Owner_Id() {
-        final List<Booking> bookings = bookingRepository
-                .findBookingsByItem_Owner_Id(item.getOwner().getId(),
-                        Pageable.unpaged());
+    void findOwnerAllByOffset() {
+        final List<BookingDtoShort> bookings = bookingRepository
+                .findPage(BookingRole.OWNER, item.getOwner().getId(), Status.ALL, LocalDateTime.now(), 0, 20);
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
-        assertSame(booking, bookings.get(0));
+        assertEquals(booking.getId(), bookings.get(0).getId());
     }
 
     @Test
-    void findCurrentBookingsByBooker_Id() {
-        List<Booking> bookings = bookingRepository
-                .findCurrentBookingsByBooker_Id(booker.getId(),
-                        LocalDateTime.now(),
-                        Pageable.unpaged());
+    void findOwnerByStatus() {
+        final LocalDateTime now = LocalDateTime.now();
+        for (int i = 1; i <= 3; i++) {
+            bookingRepository.save(new Booking(null, now.plusDays(i), now.plusDays(i).plusHours(1),
+                    item, booker, Status.WAITING));
+        }
+        bookingRepository.save(new Booking(null, now.plusDays(4), now.plusDays(5),
+                item, booker, Status.REJECTED));
+        List<BookingDtoShort> waiting = bookingRepository.findPage(BookingRole.OWNER, owner.getId(),
+                Status.WAITING, now, 2, 2);
+        assertEquals(1, waiting.size());
+        assertEquals(now.plusDays(1).truncatedTo(ChronoUnit.SECONDS),
+                waiting.get(0).getStart().truncatedTo(ChronoUnit.SECONDS));
+        assertEquals(1, bookingRepository.findPage(BookingRole.OWNER, owner.getId(),
+                Status.REJECTED, now, 0, 2).size());
+        assertTrue(bookingRepository.findPage(BookingRole.OWNER, booker.getId(),
+                Status.WAITING, now, 0, 2).isEmpty());
+    }
+
+    @Test
+    void findBookerCurrent() {
+        List<BookingDtoShort> bookings = bookingRepository
+                .findPage(BookingRole.BOOKER, booker.getId(), Status.CURRENT, LocalDateTime.now(), 0, 20);
         assertNotNull(bookings);
         assertEquals(0, bookings.size());
 
@@ -189,20 +313,16 @@ class BookingRepositoryTest {
                 LocalDateTime.now().plusDays(10),
                 item, booker, Status.APPROVED));
         bookings = bookingRepository
-                .findCurrentBookingsByBooker_Id(booker.getId(),
-                        LocalDateTime.now(),
-                        Pageable.unpaged());
+                .findPage(BookingRole.BOOKER, booker.getId(), Status.CURRENT, LocalDateTime.now(), 0, 20);
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
-        assertSame(booking1, bookings.get(0));
+        assertEquals(booking1.getId(), bookings.get(0).getId());
     }
 
     @Test
-    void findCurrentBookingsByItem_Owner_Id() {
-        List<Booking> bookings = bookingRepository
-                .findCurrentBookingsByItem_Owner_Id(item.getOwner().getId(),
-                        LocalDateTime.now(),
-                        Pageable.unpaged());
+    void findOwnerCurrent() {
+        List<BookingDtoShort> bookings = bookingRepository
+                .findPage(BookingRole.OWNER, item.getOwner().getId(), Status.CURRENT, LocalDateTime.now(), 0, 20);
         assertNotNull(bookings);
         assertEquals(0, bookings.size());
 
@@ -211,33 +331,188 @@ class BookingRepositoryTest {
                 LocalDateTime.now().plusDays(10),
                 item, booker, Status.APPROVED));
         bookings = bookingRepository
-                .findCurrentBookingsByItem_Owner_Id(item.getOwner().getId(),
-                        LocalDateTime.now(),
-                        Pageable.unpaged());
+                .findPage(BookingRole.OWNER, item.getOwner().getId(), Status.CURRENT, LocalDateTime.now(), 0, 20);
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
-        assertSame(booking1, bookings.get(0));
+        assertEquals(booking1.getId(), bookings.get(0).getId());
     }
 
     @Test
-    void findBookingsByBooker_IdAndEndIsBefore() {
-        final List<Booking> bookings = bookingRepository
-                .findBookingsByBooker_IdAndEndIsBefore(booker.getId(),
-                        LocalDateTime.now(),
-                        Pageable.unpaged());
+    void findBookerPast() {
+        final List<BookingDtoShort> bookings = bookingRepository
+                .findPage(BookingRole.BOOKER, booker.getId(), Status.PAST, LocalDateTime.now(), 0, 20);
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
-        assertSame(booking, bookings.get(0));
+        assertEquals(booking.getId(), bookings.get(0).getId());
     }
 
     @Test
-    void findBookingsByItem_Owner_IdAndEndIsBefore() {
-        final List<Booking> bookings = bookingRepository
-                .findBookingsByItem_Owner_IdAndEndIsBefore(item.getOwner().getId(),
-                        LocalDateTime.now(),
-                        Pageable.unpaged());
+    void findOwnerPast() {
+        final List<BookingDtoShort> bookings = bookingRepository
+                .findPage(BookingRole.OWNER, item.getOwner().getId(), Status.PAST, LocalDateTime.now(), 0, 20);
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
-        assertSame(booking, bookings.get(0));
+        assertEquals(booking.getId(), bookings.get(0).getId());
+    }
+
+    @Test
+    void findLastAndNextBookingsByItemIds() {
+        final Booking nextBooking = bookingRepository.save(new Booking(2L,
+                LocalDateTime.now().plusDays(5),
+                LocalDateTime.now().plusDays(10),
+                item, booker, Status.APPROVED));
+        final List<ItemBookingView> bookings = bookingRepository
+                .findLastAndNextBookingsByItemIds(Set.of(item.getId()), LocalDateTime.now());
+        assertNotNull(bookings);
+        assertEquals(2, bookings.size());
+        for (ItemBookingView view : bookings) {
+            assertEquals(item.getId(), view.getItemId());
+            assertEquals(booker.getId(), view.getBookerId());
+            if (ItemBookingView.LAST.equals(view.getKind())) {
+                assertEquals(booking.getId(), view.getId());
+            } else {
+                assertEquals(ItemBookingView.NEXT, view.getKind());
+                assertEquals(nextBooking.getId(), view.getId());
+            }
+        }
+    }
+
+    @Test
+    void findPage() {
+        final LocalDateTime start = LocalDateTime.now().minusDays(4).truncatedTo(ChronoUnit.SECONDS);
+        final Booking second = bookingRepository.save(new Booking(null, start, start.plusDays(1),
+                item, booker, Status.WAITING));
+        final Booking third = bookingRepository.save(new Booking(null, start, start.plusDays(2),
+                item, booker, Status.WAITING));
+        final LocalDateTime now = LocalDateTime.now();
+        final List<BookingDtoShort> firstPage = bookingRepository
+                .findPage(BookingRole.BOOKER, booker.getId(), Status.ALL, now, null, 2);
+        assertEquals(List.of(third.getId(), second.getId()), ids(firstPage));
+        final List<BookingDtoShort> secondPage = bookingRepository.findPage(BookingRole.BOOKER, booker.getId(),
+                Status.ALL, now, PageCursor.of(CursorKind.BOOKINGS, second.getStart(), second.getId()), 2);
+        assertEquals(List.of(booking.getId()), ids(secondPage));
+        final List<BookingDtoShort> waiting = bookingRepository
+                .findPage(BookingRole.OWNER, owner.getId(), Status.WAITING, now, null, 20);
+        assertEquals(List.of(third.getId(), second.getId()), ids(waiting));
+        assertTrue(bookingRepository
+                .findPage(BookingRole.OWNER, booker.getId(), Status.ALL, now, null, 20).isEmpty());
+    }
+
+    @Test
+    void findPageReadsOnlyListFields() {
+        entityManager.flush();
+        entityManager.clear();
+        final BookingDtoShort found = bookingRepository
+                .findPage(BookingRole.OWNER, owner.getId(), Status.ALL, LocalDateTime.now(), 0, 20).get(0);
+        assertEquals(booking.getId(), found.getId());
+        assertEquals(booking.getStatus(), found.getStatus());
+        assertEquals(new BookingDtoShort.ItemShort(item.getId(), item.getName()), found.getItem());
+        assertEquals(new BookingDtoShort.BookerShort(booker.getId()), found.getBooker());
+        // проекция не загружает сущности в контекст
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void archiveEndedBefore() {
+        final LocalDateTime now = LocalDateTime.now();
+        final Booking old = bookingRepository.save(new Booking(null, now.minusDays(20), now.minusDays(19),
+                item, booker, Status.APPROVED));
+        bookingRepository.save(new Booking(null, now.minusDays(18), now.minusDays(17),
+                item, booker, Status.REJECTED));
+        final Booking waiting = bookingRepository.save(new Booking(null, now.minusDays(16), now.minusDays(15),
+                item, booker, Status.WAITING));
+        entityManager.flush();
+        assertEquals(1, bookingRepository.archiveEndedBefore(now.minusDays(10), now, 1));
+        assertEquals(1, bookingRepository.archiveEndedBefore(now.minusDays(10), now, 1));
+        // ожидающее решения и последнее закончившееся бронирование вещи остаются в bookings
+        assertEquals(0, bookingRepository.archiveEndedBefore(now.minusDays(1), now, 10));
+        entityManager.clear();
+
+        assertTrue(bookingRepository.findById(old.getId()).isEmpty());
+        final ArchivedBooking archived = archivedBookingRepository.findById(old.getId()).orElseThrow();
+        assertEquals(Status.APPROVED, archived.getStatus());
+        assertTrue(Hibernate.isInitialized(archived.getItem().getOwner()));
+        assertTrue(bookingRepository.findById(waiting.getId()).isPresent());
+        assertTrue(bookingRepository.findById(booking.getId()).isPresent());
+        assertTrue(archivedBookingRepository.existsByBooker_IdAndItem_IdAndEndIsBeforeAndStatus(booker.getId(),
+                item.getId(), now, Status.APPROVED));
+        assertFalse(archivedBookingRepository.existsByBooker_IdAndItem_IdAndEndIsBeforeAndStatus(owner.getId(),
+                item.getId(), now, Status.APPROVED));
+    }
+
+    @Test
+    void expireWaitingBookings() {
+        final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        final Booking stale = bookingRepository.save(new Booking(null, now.minusDays(2), now.plusDays(1),
+                item, booker, Status.WAITING));
+        final Booking staler = bookingRepository.save(new Booking(null, now.minusDays(3), now.minusDays(1),
+                item, booker, Status.WAITING));
+        bookingRepository.save(new Booking(null, now.plusDays(2), now.plusDays(3), item, booker, Status.WAITING));
+        entityManager.flush();
+
+        final List<BookingItemView> found = bookingRepository.findByStatusAndStartBefore(Status.WAITING, now,
+                PageRequest.of(0, 10));
+        assertEquals(List.of(staler.getId(), stale.getId()), found.stream()
+                .map(BookingItemView::getId)
+                .collect(Collectors.toList()));
+        assertEquals(item.getId(), found.get(0).getItemId());
+        assertEquals(staler.getStart(), bookingRepository.findFirstStartByStatusAndStartBefore(Status.WAITING, now));
+
+        // бронирование, уже получившее решение, не отменяется
+        assertEquals(1, bookingRepository.updateStatusesIfCurrent(List.of(stale.getId(), booking.getId()),
+                Status.WAITING, Status.CANCELED));
+        entityManager.clear();
+        assertEquals(Status.CANCELED, bookingRepository.findById(stale.getId()).orElseThrow().getStatus());
+        assertEquals(Status.APPROVED, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void findPageReadsArchive() {
+        final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        final Booking old = bookingRepository.save(new Booking(null, now.minusDays(20), now.minusDays(19),
+                item, booker, Status.APPROVED));
+        final Booking rejected = bookingRepository.save(new Booking(null, now.minusDays(18), now.minusDays(17),
+                item, booker, Status.REJECTED));
+        final Booking waiting = bookingRepository.save(new Booking(null, now.minusDays(16), now.minusDays(15),
+                item, booker, Status.WAITING));
+        entityManager.flush();
+        assertEquals(2, bookingRepository.archiveEndedBefore(now.minusDays(10), now, 10));
+        entityManager.clear();
+
+        assertEquals(List.of(booking.getId(), waiting.getId(), rejected.getId(), old.getId()), ids(bookingRepository
+                .findPage(BookingRole.BOOKER, booker.getId(), Status.PAST, now, 0, 20)));
+        assertEquals(List.of(waiting.getId(), rejected.getId()), ids(bookingRepository
+                .findPage(BookingRole.OWNER, owner.getId(), Status.ALL, now, 1, 2)));
+        final BookingDtoShort archivedRow = bookingRepository
+                .findPage(BookingRole.BOOKER, booker.getId(), Status.ALL, now, 3, 1).get(0);
+        assertEquals(new BookingDtoShort(old.getId(), old.getStart(), old.getEnd(), Status.APPROVED,
+                item.getId(), item.getName(), booker.getId()), archivedRow);
+        assertEquals(List.of(rejected.getId(), old.getId()), ids(bookingRepository
+                .findPage(BookingRole.BOOKER, booker.getId(), Status.ALL, now,
+                        PageCursor.of(CursorKind.BOOKINGS, waiting.getStart(), waiting.getId()), 2)));
+        assertEquals(List.of(rejected.getId()), ids(bookingRepository
+                .findPage(BookingRole.OWNER, owner.getId(), Status.REJECTED, now, 0, 20)));
+        assertEquals(List.of(waiting.getId()), ids(bookingRepository
+                .findPage(BookingRole.BOOKER, booker.getId(), Status.WAITING, now, 0, 20)));
+    }
+
+    @Test
+    void findByIdLoadsBookingListGraph() {
+        entityManager.flush();
+        entityManager.clear();
+        final Booking found = bookingRepository.findById(booking.getId()).orElseThrow();
+        assertTrue(Hibernate.isInitialized(found.getItem()));
+        assertTrue(Hibernate.isInitialized(found.getItem().getOwner()));
+        assertTrue(Hibernate.isInitialized(found.getBooker()));
+        entityManager.clear();
+        final Booking lazy = bookingRepository
+                .searchBookingByBooker_IdAndItem_IdAndEndIsBeforeAndStatus(booker.getId(), item.getId(),
+                        LocalDateTime.now(), Status.APPROVED).get(0);
+        assertFalse(Hibernate.isInitialized(lazy.getItem()));
+        assertEquals(item.getId(), lazy.getItem().getId());
+    }
+
+    private static List<Long> ids(List<BookingDtoShort> bookings) {
+        return bookings.stream().map(BookingDtoShort::getId).collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
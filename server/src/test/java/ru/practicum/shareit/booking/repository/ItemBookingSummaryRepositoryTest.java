@@ -0,0 +1,57 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class ItemBookingSummaryRepositoryTest {
+
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemBookingSummaryRepository summaryRepository;
+
+    private Item item1;
+    private Item item2;
+
+    @BeforeEach
+    void beforeEach() {
+        User owner = userRepository.save(new User(1L, "user1", "user1@mail.ru"));
+        item1 = itemRepository.save(new Item(1L, "item1", "description1",
+                true, owner, null));
+        item2 = itemRepository.save(new Item(2L, "item2", "description2",
+                true, owner, null));
+        summaryRepository.save(new ItemBookingSummary(item1.getId(), null, null, null, null,
+                LocalDateTime.now().minusHours(1)));
+        summaryRepository.save(new ItemBookingSummary(item2.getId(), null, null, null, null,
+                LocalDateTime.now().plusHours(1)));
+    }
+
+    @AfterEach
+    void afterEach() {
+        summaryRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void findExpiredItemIds() {
+        final List<Long> itemIds = summaryRepository.findExpiredItemIds(LocalDateTime.now());
+        assertEquals(List.of(item1.getId()), itemIds);
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Запоминает SQL, который Hibernate отправляет в базу, чтобы тесты планов могли выполнить по нему EXPLAIN.
+ * Подключается свойством hibernate.session_factory.statement_inspector.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    static final String PROPERTY = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+            + "ru.practicum.shareit.booking.repository.RecordingStatementInspector";
+
+    private static final Pattern BOOKINGS_TABLE = Pattern.compile(" (public\\.)?bookings ");
+    private static final Pattern ARCHIVE_TABLE = Pattern.compile(" (public\\.)?bookings_archive ");
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    static void clear() {
+        STATEMENTS.clear();
+    }
+
+    /**
+     * Записанные запросы к таблице bookings, кроме insert.
+     */
+    static List<String> bookingQueries() {
+        return queries(BOOKINGS_TABLE);
+    }
+
+    /**
+     * Записанные запросы к таблице bookings_archive, кроме insert.
+     */
+    static List<String> archiveQueries() {
+        return queries(ARCHIVE_TABLE);
+    }
+
+    private static List<String> queries(Pattern table) {
+        return STATEMENTS.stream()
+                .filter(sql -> table.matcher(normalize(sql)).find())
+                .filter(sql -> !normalize(sql).startsWith("insert "))
+                .collect(Collectors.toList());
+    }
+
+    static String normalize(String sql) {
+        return sql.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").trim() + " ";
+    }
+}
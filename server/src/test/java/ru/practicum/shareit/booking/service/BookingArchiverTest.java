@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BookingArchiverTest {
+
+    @Test
+    void archiveRepeatsWhileBatchIsFull() {
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.archiveEndedBefore(any(LocalDateTime.class), any(LocalDateTime.class), eq(2)))
+                .thenReturn(2, 2, 1);
+        BookingArchiver archiver = new BookingArchiver(bookingRepository, Duration.ofDays(30), 2);
+        LocalDateTime before = LocalDateTime.now();
+        assertEquals(5, archiver.archive());
+        verify(bookingRepository, times(3)).archiveEndedBefore(
+                argThat(endedBefore -> !endedBefore.isAfter(LocalDateTime.now().minusDays(30))
+                        && !endedBefore.isBefore(before.minusDays(30))),
+                any(LocalDateTime.class), eq(2));
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingItemView;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.event.ItemBookingsChangedEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BookingExpirerTest {
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final ItemBookingSummaryService itemBookingSummaryService = mock(ItemBookingSummaryService.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BookingExpirer expirer = new BookingExpirer(bookingRepository, itemBookingSummaryService,
+            eventPublisher, meterRegistry, 2, Duration.ZERO);
+
+    @Test
+    void expireRepeatsWhileBatchIsFull() {
+        List<BookingItemView> first = List.of(view(1L, 10L), view(2L, 10L));
+        List<BookingItemView> second = List.of(view(3L, 20L));
+        when(bookingRepository.findByStatusAndStartBefore(eq(Status.WAITING), any(LocalDateTime.class),
+                any(Pageable.class)))
+                .thenReturn(first)
+                .thenReturn(second);
+        when(bookingRepository.updateStatusesIfCurrent(List.of(1L, 2L), Status.WAITING, Status.CANCELED))
+                .thenReturn(2);
+        // владелец успел подтвердить бронирование 3
+        when(bookingRepository.updateStatusesIfCurrent(List.of(3L), Status.WAITING, Status.CANCELED))
+                .thenReturn(0);
+
+        assertEquals(2, expirer.expire());
+        verify(itemBookingSummaryService).invalidate(Set.of(10L));
+        verify(itemBookingSummaryService).invalidate(Set.of(20L));
+        verify(eventPublisher).publishEvent(new ItemBookingsChangedEvent(10L));
+        verify(eventPublisher).publishEvent(new ItemBookingsChangedEvent(20L));
+        assertEquals(2, meterRegistry.get("shareit.booking.expiry.expired").counter().count());
+        assertEquals(2, meterRegistry.get("shareit.booking.expiry.batch").timer().count());
+        assertEquals(0, meterRegistry.get("shareit.booking.expiry.lag").gauge().value());
+    }
+
+    @Test
+    void expireReportsLagOfRemainingBookings() {
+        when(bookingRepository.findByStatusAndStartBefore(eq(Status.WAITING), any(LocalDateTime.class),
+                any(Pageable.class)))
+                .thenReturn(List.of());
+        when(bookingRepository.findFirstStartByStatusAndStartBefore(eq(Status.WAITING), any(LocalDateTime.class)))
+                .thenReturn(LocalDateTime.now().minusMinutes(10));
+
+        assertEquals(0, expirer.expire());
+        verify(bookingRepository, never()).updateStatusesIfCurrent(anyCollection(), any(Status.class),
+                any(Status.class));
+        verifyNoInteractions(itemBookingSummaryService, eventPublisher);
+        assertTrue(meterRegistry.get("shareit.booking.expiry.lag").gauge().value() >= 600);
+    }
+
+    private static BookingItemView view(Long id, Long itemId) {
+        BookingItemView view = mock(BookingItemView.class);
+        when(view.getId()).thenReturn(id);
+        when(view.getItemId()).thenReturn(itemId);
+        return view;
+    }
+}
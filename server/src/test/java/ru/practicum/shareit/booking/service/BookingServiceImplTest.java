@@ -1,17 +1,34 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.booking.dto.BookingApprovalView;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoShort;
+import ru.practicum.shareit.booking.dto.BookingDtoSimple;
+import ru.practicum.shareit.booking.dto.BookingIntervalView;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.lock.StripedItemLocks;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.overlap.JpqlBookingOverlapCheck;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BookingConflictException;
 import ru.practicum.shareit.exception.BookingException;
 import ru.practicum.shareit.exception.StorageException;
+import ru.practicum.shareit.item.event.ItemBookingsChangedEvent;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.CursorKind;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
@@ -19,6 +36,7 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,9 +46,12 @@ class BookingServiceImplTest {
 
     private BookingService bookingService;
     private BookingRepository bookingRepository;
+    private ArchivedBookingRepository archivedBookingRepository;
     private ItemRepository itemRepository;
     private UserRepository userRepository;
     private BookingMapper bookingMapper;
+    private ItemBookingSummaryService itemBookingSummaryService;
+    private ApplicationEventPublisher eventPublisher;
     private Booking booking;
 
     @BeforeEach
@@ -38,9 +59,14 @@ class BookingServiceImplTest {
         itemRepository = mock(ItemRepository.class);
         userRepository = mock(UserRepository.class);
         bookingRepository = mock(BookingRepository.class);
+        archivedBookingRepository = mock(ArchivedBookingRepository.class);
         bookingMapper = new BookingMapper();
-        bookingService = new BookingServiceImpl(bookingRepository, itemRepository,
-                userRepository, bookingMapper);
+        itemBookingSummaryService = mock(ItemBookingSummaryService.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        bookingService = new BookingServiceImpl(bookingRepository, archivedBookingRepository, itemRepository,
+                userRepository, bookingMapper, itemBookingSummaryService,
+                new StripedItemLocks(4, new SimpleMeterRegistry()), new JpqlBookingOverlapCheck(bookingRepository),
+                eventPublisher);
         booking = createBooking();
     }
 
@@ -78,53 +104,62 @@ class BookingServiceImplTest {
         assertNotNull(thrown2.getMessage());
     }
 
+    @Test
+    void findByIdFromArchive() {
+        ArchivedBooking archived = new ArchivedBooking(booking.getId(), booking.getStart(), booking.getEnd(),
+                booking.getItem(), booking.getBooker(), APPROVED);
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.empty());
+        when(archivedBookingRepository.findById(booking.getId())).thenReturn(Optional.of(archived));
+        BookingDto bookingDto = bookingService.findById(booking.getId(), booking.getItem().getOwner().getId());
+        assertEquals(booking.getId(), bookingDto.getId());
+        assertEquals(APPROVED, bookingDto.getStatus());
+        assertThrows(StorageException.class, () -> bookingService.findById(booking.getId(), 10L));
+        assertThrows(StorageException.class, () -> bookingService.findById(booking.getId() + 1, 10L));
+    }
+
     @Test
     void findAll() {
         when(userRepository.findById(booking.getBooker().getId()))
                 .thenReturn(Optional.of(booking.getBooker()));
-        when(bookingRepository.findByBooker_Id(booking.getBooker().getId(),
-                PageRequest.of(0, 20, Sort.by("start").descending())))
-                .thenReturn(Collections.singletonList(booking));
-        final List<BookingDto> bookingDtos = bookingService
+        when(bookingRepository.findPage(eq(BookingRole.BOOKER), eq(booking.getBooker().getId()), eq(ALL),
+                        any(LocalDateTime.class), eq(0), eq(20)))
+                .thenReturn(Collections.singletonList(bookingMapper.toBookingDtoShort(booking)));
+        final List<BookingDtoShort> bookingDtos = bookingService
                 .findAll(booking.getBooker().getId(), "ALL", 0, 20);
         assertNotNull(bookingDtos);
         assertEquals(1, bookingDtos.size());
         assertEquals(booking.getItem().getName(), bookingDtos.get(0).getItem().getName());
         verify(bookingRepository, times(1))
-                .findByBooker_Id(booking.getBooker().getId(),
-                        PageRequest.of(0, 20, Sort.by("start").descending()));
+                .findPage(eq(BookingRole.BOOKER), eq(booking.getBooker().getId()), eq(ALL),
+                        any(LocalDateTime.class), eq(0), eq(20));
 
         booking.setStatus(WAITING);
-        when(bookingRepository.findBookingsByBooker_IdAndStatus(booking.getBooker().getId(),
-                WAITING,
-                PageRequest.of(0, 20, Sort.by("start").descending())))
-                .thenReturn(Collections.singletonList(booking));
-        List<BookingDto> bookings2 = bookingService
+        when(bookingRepository.findPage(eq(BookingRole.BOOKER), eq(booking.getBooker().getId()), eq(WAITING),
+                        any(LocalDateTime.class), eq(0), eq(20)))
+                .thenReturn(Collections.singletonList(bookingMapper.toBookingDtoShort(booking)));
+        List<BookingDtoShort> bookings2 = bookingService
                 .findAll(booking.getBooker().getId(),
                         "WAITING", 0, 20);
         assertNotNull(bookings2);
         assertEquals(1, bookings2.size());
         assertEquals(booking.getStatus(), bookings2.get(0).getStatus());
         verify(bookingRepository, times(1))
-                .findBookingsByBooker_IdAndStatus(booking.getBooker().getId(),
-                        WAITING,
-                        PageRequest.of(0, 20, Sort.by("start").descending()));
+                .findPage(eq(BookingRole.BOOKER), eq(booking.getBooker().getId()), eq(WAITING),
+                        any(LocalDateTime.class), eq(0), eq(20));
 
         booking.setStatus(REJECTED);
-        when(bookingRepository.findBookingsByBooker_IdAndStatus(booking.getBooker().getId(),
-                REJECTED,
-                PageRequest.of(0, 20, Sort.by("start").descending())))
-                .thenReturn(Collections.singletonList(booking));
-        List<BookingDto> bookings3 = bookingService
+        when(bookingRepository.findPage(eq(BookingRole.BOOKER), eq(booking.getBooker().getId()), eq(REJECTED),
+                        any(LocalDateTime.class), eq(0), eq(20)))
+                .thenReturn(Collections.singletonList(bookingMapper.toBookingDtoShort(booking)));
+        List<BookingDtoShort> bookings3 = bookingService
                 .findAll(booking.getBooker().getId(),
                         "REJECTED", 0, 20);
         assertNotNull(bookings3);
         assertEquals(1, bookings3.size());
         assertEquals(booking.getStatus(), bookings3.get(0).getStatus());
         verify(bookingRepository, times(1))
-                .findBookingsByBooker_IdAndStatus(booking.getBooker().getId(),
-                        REJECTED,
-                        PageRequest.of(0, 20, Sort.by("start").descending()));
+                .findPage(eq(BookingRole.BOOKER), eq(booking.getBooker().getId()), eq(REJECTED),
+                        any(LocalDateTime.class), eq(0), eq(20));
         String incorrectState = "error";
         Throwable thrown = assertThrows(BookingException.class,
                 () -> bookingService.findAll(booking.getBooker().getId(),
@@ -137,7 +172,7 @@ class BookingServiceImplTest {
         booking.setStatus(WAITING);
         when(userRepository.findById(booking.getBooker().getId()))
                 .thenReturn(Optional.of(booking.getBooker()));
-        when(itemRepository.findById(booking.getItem().getId()))
+        when(itemRepository.findWithOwnerAndRequestById(booking.getItem().getId()))
                 .thenReturn(Optional.of(booking.getItem()));
         when(bookingRepository.save(any(Booking.class)))
                 .thenReturn(booking);
@@ -148,6 +183,16 @@ class BookingServiceImplTest {
         assertEquals("user2", bookingDto.getBooker().getName());
         assertEquals(booking.getId(), bookingDto.getId());
         verify(bookingRepository, times(1)).save(booking);
+        verify(itemBookingSummaryService, times(1)).refresh(booking.getItem().getId());
+        verify(eventPublisher, times(1)).publishEvent(new ItemBookingsChangedEvent(booking.getItem().getId()));
+
+        when(bookingRepository.findFirstStartByItemEndingAfter(eq(booking.getItem().getId()), anyCollection(),
+                eq(booking.getStart())))
+                .thenReturn(booking.getStart().minusDays(1));
+        assertThrows(BookingConflictException.class,
+                () -> bookingService.save(bookingMapper.toBookingDtoSimple(booking),
+                        booking.getBooker().getId()));
+        verify(bookingRepository, times(1)).save(booking);
 
        LocalDateTime errorEnd = booking.getEnd().minusDays(30);
        booking.setEnd(errorEnd);
@@ -175,72 +220,183 @@ class BookingServiceImplTest {
 
     @Test
     void deleteById() {
+        when(bookingRepository.findById(booking.getId()))
+                .thenReturn(Optional.of(booking));
         bookingService.deleteById(booking.getId());
-        verify(bookingRepository, times(1)).deleteById(booking.getId());
+        verify(bookingRepository, times(1)).delete(booking);
+        verify(itemBookingSummaryService, times(1)).refresh(booking.getItem().getId());
+        verify(eventPublisher, times(1)).publishEvent(new ItemBookingsChangedEvent(booking.getItem().getId()));
+    }
+
+    @Test
+    void deleteByIdFromArchive() {
+        ArchivedBooking archived = new ArchivedBooking(booking.getId(), booking.getStart(), booking.getEnd(),
+                booking.getItem(), booking.getBooker(), APPROVED);
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.empty());
+        when(archivedBookingRepository.findById(booking.getId())).thenReturn(Optional.of(archived));
+        bookingService.deleteById(booking.getId());
+        verify(archivedBookingRepository, times(1)).delete(archived);
+        verify(bookingRepository, never()).delete(any(Booking.class));
+        assertThrows(StorageException.class, () -> bookingService.deleteById(booking.getId() + 1));
+    }
+
+    @Test
+    void saveAll() {
+        Item item = booking.getItem();
+        User booker = booking.getBooker();
+        LocalDateTime start = LocalDateTime.now().plusDays(10);
+        BookingIntervalView busy = mock(BookingIntervalView.class);
+        when(busy.getItemId()).thenReturn(item.getId());
+        when(busy.getStart()).thenReturn(start.plusDays(5));
+        when(busy.getEnd()).thenReturn(start.plusDays(6));
+        when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
+        when(itemRepository.findWithOwnerAndRequestByIdIn(Set.of(item.getId(), 99L))).thenReturn(List.of(item));
+        when(bookingRepository.findIntervalsOverlapping(eq(Set.of(item.getId())), anyCollection(), any(), any()))
+                .thenReturn(List.of(busy));
+        doAnswer(invocation -> {
+            List<Booking> inserted = invocation.getArgument(0);
+            inserted.forEach(b -> b.setId(10L));
+            return null;
+        }).when(bookingRepository).insertAll(anyList());
+        List<BookingBatchResultDto> results = bookingService.saveAll(List.of(
+                new BookingDtoSimple(null, start, start.plusDays(1), item.getId()),
+                new BookingDtoSimple(null, start.plusDays(5), start.plusDays(7), item.getId()),
+                new BookingDtoSimple(null, start.plusHours(12), start.plusDays(2), item.getId()),
+                new BookingDtoSimple(null, start, start.plusDays(1), 99L),
+                new BookingDtoSimple(null, start, start.minusDays(1), item.getId())), booker.getId());
+        assertEquals(5, results.size());
+        assertEquals(10L, results.get(0).getBooking().getId());
+        assertEquals(WAITING, results.get(0).getBooking().getStatus());
+        assertEquals("BOOKING_CONFLICT", results.get(1).getError());
+        assertEquals("BOOKING_CONFLICT", results.get(2).getError());
+        assertEquals("NOT_FOUND", results.get(3).getError());
+        assertEquals("BAD_REQUEST", results.get(4).getError());
+        verify(bookingRepository, times(1)).insertAll(argThat(list -> list.size() == 1));
+        verify(itemBookingSummaryService, times(1)).invalidate(Set.of(item.getId()));
+        verify(eventPublisher, times(1)).publishEvent(new ItemBookingsChangedEvent(item.getId()));
+    }
+
+    @Test
+    void decideAll() {
+        long ownerId = booking.getItem().getOwner().getId();
+        BookingApprovalView waiting = approvalView(1L, WAITING, ownerId);
+        BookingApprovalView rejectedLater = approvalView(2L, WAITING, ownerId);
+        BookingApprovalView approved = approvalView(3L, APPROVED, ownerId);
+        BookingApprovalView foreign = approvalView(4L, WAITING, ownerId + 1);
+        when(bookingRepository.findApprovalViewsByIdIn(Set.of(1L, 2L, 3L, 4L, 5L)))
+                .thenReturn(List.of(waiting, rejectedLater, approved, foreign));
+        when(bookingRepository.decideIfCurrent(Set.of(1L, 2L), ownerId, WAITING, List.of(1L), APPROVED, REJECTED))
+                .thenReturn(1);
+        BookingApprovalView decidedConcurrently = approvalView(2L, CANCELED, ownerId);
+        BookingApprovalView decided = approvalView(1L, APPROVED, ownerId);
+        when(bookingRepository.findApprovalViewsByIdIn(Set.of(1L, 2L)))
+                .thenReturn(List.of(decided, decidedConcurrently));
+        List<BookingDecisionResultDto> results = bookingService.decideAll(ownerId, List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, false),
+                new BookingDecisionDto(3L, false),
+                new BookingDecisionDto(4L, true),
+                new BookingDecisionDto(5L, true),
+                new BookingDecisionDto(1L, false),
+                new BookingDecisionDto(6L, null)));
+        assertEquals(APPROVED, results.get(0).getStatus());
+        assertNull(results.get(0).getError());
+        assertEquals("BAD_REQUEST", results.get(1).getError());
+        assertEquals("Бронирование уже подтверждено", results.get(2).getMessage());
+        assertEquals("NOT_FOUND", results.get(3).getError());
+        assertEquals("NOT_FOUND", results.get(4).getError());
+        assertEquals("BAD_REQUEST", results.get(5).getError());
+        assertEquals("BAD_REQUEST", results.get(6).getError());
+        verify(itemBookingSummaryService, times(1)).invalidate(Set.of(booking.getItem().getId()));
+        verify(eventPublisher, times(1)).publishEvent(new ItemBookingsChangedEvent(booking.getItem().getId()));
+    }
+
+    private BookingApprovalView approvalView(long id, Status status, long ownerId) {
+        BookingApprovalView view = mock(BookingApprovalView.class);
+        when(view.getId()).thenReturn(id);
+        when(view.getStatus()).thenReturn(status);
+        when(view.getOwnerId()).thenReturn(ownerId);
+        when(view.getItemId()).thenReturn(booking.getItem().getId());
+        return view;
     }
 
     @Test
     void approve() {
         long bookingId = booking.getId();
-        when(bookingRepository.save(booking)).thenReturn(booking);
+        long ownerId = booking.getItem().getOwner().getId();
+        when(bookingRepository.updateStatusIfCurrent(bookingId, ownerId, WAITING, APPROVED)).thenReturn(1);
         when(bookingRepository.findById(bookingId))
                 .thenReturn(Optional.of(booking));
+        BookingDto bookingDto = bookingService.approve(ownerId, bookingId, true);
+        assertEquals(bookingId, bookingDto.getId());
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(itemBookingSummaryService, times(1)).refresh(booking.getItem().getId());
+        verify(eventPublisher, times(1)).publishEvent(new ItemBookingsChangedEvent(booking.getItem().getId()));
+
+        BookingApprovalView approvedView = mock(BookingApprovalView.class);
+        when(approvedView.getOwnerId()).thenReturn(ownerId);
+        when(approvedView.getStatus()).thenReturn(APPROVED);
+        when(bookingRepository.updateStatusIfCurrent(bookingId, ownerId, WAITING, APPROVED)).thenReturn(0);
+        when(bookingRepository.findApprovalViewById(bookingId)).thenReturn(Optional.of(approvedView));
         Throwable thrown = assertThrows(BookingException.class,
-                () -> bookingService.approve(booking.getItem().getOwner().getId(),
-                        bookingId, true));
-        assertNotNull(thrown.getMessage());
-        verify(bookingRepository, times(1)).findById(bookingId);
+                () -> bookingService.approve(ownerId, bookingId, true));
+        assertEquals("Бронирование уже подтверждено", thrown.getMessage());
+        assertThrows(StorageException.class,
+                () -> bookingService.approve(ownerId + 1, bookingId, true));
+        assertThrows(StorageException.class,
+                () -> bookingService.approve(ownerId, bookingId + 1, true));
         Throwable thrown2 = assertThrows(BookingException.class,
-                () -> bookingService.approve(booking.getItem().getOwner().getId(),
-                        bookingId, null));
+                () -> bookingService.approve(ownerId, bookingId, null));
         assertNotNull(thrown2.getMessage());
     }
 
     @Test
     void findAllByItemOwnerId() {
-        BookingDto bookingDto = bookingMapper.toBookingDto(booking);
+        BookingDtoShort bookingDto = bookingMapper.toBookingDtoShort(booking);
         when(userRepository.findById(booking.getItem().getOwner().getId()))
                 .thenReturn(Optional.of(booking.getBooker()));
-        when(bookingRepository.searchBookingByItem_Owner_Id(booking.getItem().getOwner().getId(),
-                PageRequest.of(0, 20, Sort.by("start").descending())))
-                .thenReturn(Collections.singletonList(booking));
-        List<BookingDto> bookings = bookingService
+        when(bookingRepository.findPage(eq(BookingRole.OWNER), eq(booking.getItem().getOwner().getId()), eq(ALL),
+                        any(LocalDateTime.class), eq(0), eq(20)))
+                .thenReturn(Collections.singletonList(bookingMapper.toBookingDtoShort(booking)));
+        List<BookingDtoShort> bookings = bookingService
                 .findAllByItemOwnerId(booking.getItem().getOwner().getId(),
                         "ALL", 0, 20);
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
         assertEquals(bookingDto, bookings.get(0));
         verify(bookingRepository, times(1))
-                .searchBookingByItem_Owner_Id(booking.getItem().getOwner().getId(),
-                        PageRequest.of(0, 20, Sort.by("start").descending()));
+                .findPage(eq(BookingRole.OWNER), eq(booking.getItem().getOwner().getId()), eq(ALL),
+                        any(LocalDateTime.class), eq(0), eq(20));
 
         booking.setStatus(WAITING);
-        when(bookingRepository.findBookingsByItem_Owner_Id(booking.getItem().getOwner().getId(),
-                PageRequest.of(0, 20, Sort.by("start").descending())))
-                .thenReturn(Collections.singletonList(booking));
-        List<BookingDto> bookings2 = bookingService
+        when(bookingRepository.findPage(eq(BookingRole.OWNER), eq(booking.getItem().getOwner().getId()), eq(WAITING),
+                        any(LocalDateTime.class), eq(0), eq(20)))
+                .thenReturn(Collections.singletonList(bookingMapper.toBookingDtoShort(booking)));
+        List<BookingDtoShort> bookings2 = bookingService
                 .findAllByItemOwnerId(booking.getItem().getOwner().getId(),
                         "WAITING", 0, 20);
         assertNotNull(bookings2);
         assertEquals(1, bookings2.size());
         assertEquals(booking.getStatus(), bookings2.get(0).getStatus());
         verify(bookingRepository, times(1))
-                .findBookingsByItem_Owner_Id(booking.getItem().getOwner().getId(),
-                        PageRequest.of(0, 20, Sort.by("start").descending()));
+                .findPage(eq(BookingRole.OWNER), eq(booking.getItem().getOwner().getId()), eq(WAITING),
+                        any(LocalDateTime.class), eq(0), eq(20));
 
         booking.setStatus(REJECTED);
-        when(bookingRepository.findBookingsByItem_Owner_Id(booking.getItem().getOwner().getId(),
-                PageRequest.of(0, 20, Sort.by("start").descending())))
-                .thenReturn(Collections.singletonList(booking));
-        List<BookingDto> bookings3 = bookingService
+        when(bookingRepository.findPage(eq(BookingRole.OWNER), eq(booking.getItem().getOwner().getId()), eq(REJECTED),
+                        any(LocalDateTime.class), eq(0), eq(20)))
+                .thenReturn(Collections.singletonList(bookingMapper.toBookingDtoShort(booking)));
+        List<BookingDtoShort> bookings3 = bookingService
                 .findAllByItemOwnerId(booking.getItem().getOwner().getId(),
                         "REJECTED", 0, 20);
         assertNotNull(bookings3);
         assertEquals(1, bookings3.size());
         assertEquals(booking.getStatus(), bookings3.get(0).getStatus());
-        verify(bookingRepository, times(2))
-                .findBookingsByItem_Owner_Id(booking.getItem().getOwner().getId(),
-                        PageRequest.of(0, 20, Sort.by("start").descending()));
+        verify(bookingRepository, times(1))
+                .findPage(eq(BookingRole.OWNER), eq(booking.getItem().getOwner().getId()), eq(REJECTED),
+                        any(LocalDateTime.class), eq(0), eq(20));
+
+        verify(itemRepository, never()).existsByOwner_Id(anyLong());
 
         String incorrectState = "error";
         Throwable thrown = assertThrows(BookingException.class,
@@ -248,4 +404,27 @@ class BookingServiceImplTest {
                         incorrectState, 0, 20));
         assertNotNull(thrown.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllByItemOwnerIdWhenPageIsEmpty() {
+        long ownerId = booking.getItem().getOwner().getId();
+        when(userRepository.findById(ownerId)).thenReturn(Optional.of(booking.getItem().getOwner()));
+        when(bookingRepository.findPage(eq(BookingRole.OWNER), eq(ownerId), eq(WAITING),
+                        any(LocalDateTime.class), eq(0), eq(20)))
+                .thenReturn(Collections.emptyList());
+        when(itemRepository.existsByOwner_Id(ownerId)).thenReturn(true);
+        assertTrue(bookingService.findAllByItemOwnerId(ownerId, "WAITING", 0, 20).isEmpty());
+        verify(bookingRepository, never()).findPage(eq(BookingRole.OWNER), anyLong(), eq(ALL), any(LocalDateTime.class),
+                anyInt(), anyInt());
+
+        when(itemRepository.existsByOwner_Id(ownerId)).thenReturn(false);
+        assertThrows(StorageException.class,
+                () -> bookingService.findAllByItemOwnerId(ownerId, "WAITING", 0, 20));
+        // с курсором результат тот же, что и со смещением
+        PageCursor cursor = PageCursor.of(CursorKind.BOOKINGS, LocalDateTime.now(), 5L);
+        assertThrows(StorageException.class,
+                () -> bookingService.findAllByItemOwnerId(ownerId, "WAITING", cursor, 20));
+        when(itemRepository.existsByOwner_Id(ownerId)).thenReturn(true);
+        assertTrue(bookingService.findAllByItemOwnerId(ownerId, "WAITING", cursor, 20).isEmpty());
+    }
+}
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDtoSimple;
+import ru.practicum.shareit.booking.lock.ItemLocks;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Пакетное создание бронирований на настоящей базе внутри транзакции блокировки, как у PostgresItemLocks.
+ * Ограничение bookings_no_overlap на H2 заменено уникальным индексом с тем же именем.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "shareit.item-lock.mode=transaction")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class IntegrationBookingServiceImplTest {
+
+    private final BookingService bookingService;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.SECONDS);
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @TestConfiguration
+    static class TransactionItemLocksConfig {
+
+        @Bean
+        ItemLocks transactionItemLocks(TransactionTemplate transactionTemplate) {
+            return new ItemLocks() {
+                @Override
+                public <T> T withLock(long itemId, Supplier<T> action) {
+                    return transactionTemplate.execute(status -> action.get());
+                }
+
+                @Override
+                public <T> T withLocks(Collection<Long> itemIds, Supplier<T> action) {
+                    return transactionTemplate.execute(status -> action.get());
+                }
+            };
+        }
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userRepository.save(new User(null, "owner", "owner@batch.ru"));
+        booker = userRepository.save(new User(null, "booker", "booker@batch.ru"));
+        item = itemRepository.save(new Item(null, "item", "description", true, owner, null));
+        jdbcTemplate.execute("create unique index \"bookings_no_overlap\" on bookings(item_id, start_date)");
+    }
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.execute("drop index \"bookings_no_overlap\"");
+        jdbcTemplate.update("delete from bookings where item_id = ?", item.getId());
+        itemRepository.deleteById(item.getId());
+        userRepository.deleteById(booker.getId());
+        userRepository.deleteById(owner.getId());
+    }
+
+    @Test
+    void saveAllRetriesOneByOneOnOverlapConstraint() {
+        // отменённое бронирование предварительная проверка пропускает, а индекс - нет
+        jdbcTemplate.update("insert into bookings (start_date, end_date, item_id, booker_id, status) " +
+                        "values (?, ?, ?, ?, 'CANCELED')", Timestamp.valueOf(start.plusDays(2)),
+                Timestamp.valueOf(start.plusDays(3)), item.getId(), booker.getId());
+
+        List<BookingBatchResultDto> results = bookingService.saveAll(List.of(
+                new BookingDtoSimple(null, start, start.plusDays(1), item.getId()),
+                new BookingDtoSimple(null, start.plusDays(2), start.plusDays(3), item.getId())), booker.getId());
+
+        assertNotNull(results.get(0).getBooking());
+        assertNull(results.get(0).getError());
+        assertEquals("BOOKING_CONFLICT", results.get(1).getError());
+        List<Long> waiting = jdbcTemplate.queryForList("select booking_id from bookings " +
+                "where item_id = ? and status = 'WAITING'", Long.class, item.getId());
+        assertEquals(List.of(results.get(0).getBooking().getId()), waiting);
+    }
+}
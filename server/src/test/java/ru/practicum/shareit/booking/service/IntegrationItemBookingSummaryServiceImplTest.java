@@ -0,0 +1,94 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class IntegrationItemBookingSummaryServiceImplTest {
+
+    private final ItemBookingSummaryService summaryService;
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private User owner;
+    private Item item;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userRepository.save(new User(null, "owner", "owner@summary.ru"));
+        item = itemRepository.save(new Item(null, "item", "description", true, owner, null));
+    }
+
+    @AfterEach
+    void afterEach() {
+        summaryRepository.deleteByItemIds(List.of(item.getId()));
+        itemRepository.deleteById(item.getId());
+        userRepository.deleteById(owner.getId());
+    }
+
+    @Test
+    void refreshWhenRowIsInsertedConcurrently() throws Exception {
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        // другой пересчёт вставил строку, но ещё не закоммитил: refresh её не видит и упирается в ключ
+        CompletableFuture<Void> concurrent = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.update("insert into item_booking_summary (item_id) values (?)", item.getId());
+                    inserted.countDown();
+                    await(commit);
+                }));
+        assertTrue(inserted.await(10, TimeUnit.SECONDS));
+        AtomicReference<Thread> refreshThread = new AtomicReference<>();
+        CompletableFuture<ItemBookingSummary> refreshed = CompletableFuture.supplyAsync(() -> {
+            refreshThread.set(Thread.currentThread());
+            return summaryService.refresh(item.getId());
+        });
+        waitUntilBlocked(refreshThread);
+        commit.countDown();
+        concurrent.get(10, TimeUnit.SECONDS);
+
+        ItemBookingSummary summary = refreshed.get(10, TimeUnit.SECONDS);
+        assertEquals(item.getId(), summary.getItemId());
+        assertTrue(summaryRepository.findById(item.getId()).isPresent());
+    }
+
+    private static void waitUntilBlocked(AtomicReference<Thread> thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (thread.get() == null || thread.get().getState() == Thread.State.RUNNABLE) {
+            assertTrue(System.nanoTime() < deadline, "refresh не дошёл до вставки");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingDtoForItem;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ItemBookingSummaryServiceImplTest {
+
+    private ItemBookingSummaryService summaryService;
+    private ItemBookingSummaryRepository summaryRepository;
+    private BookingRepository bookingRepository;
+
+    @BeforeEach
+    void beforeEach() {
+        summaryRepository = mock(ItemBookingSummaryRepository.class);
+        bookingRepository = mock(BookingRepository.class);
+        summaryService = new ItemBookingSummaryServiceImpl(summaryRepository, bookingRepository);
+        when(summaryRepository.save(any(ItemBookingSummary.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void findByItemId() {
+        ItemBookingSummary actual = new ItemBookingSummary(1L, 1L, 2L, 3L, 2L,
+                LocalDateTime.now().plusDays(1));
+        when(summaryRepository.findById(1L)).thenReturn(Optional.of(actual));
+        assertSame(actual, summaryService.findByItemId(1L));
+        verify(summaryRepository, never()).save(any());
+
+        ItemBookingSummary expired = new ItemBookingSummary(1L, 1L, 2L, 3L, 2L,
+                LocalDateTime.now().minusMinutes(1));
+        when(summaryRepository.findById(1L)).thenReturn(Optional.of(expired));
+        when(bookingRepository.findLastBookingsByItem_Id(anyLong(), any(), any()))
+                .thenReturn(List.of(new BookingDtoForItem(3L, 2L)));
+        ItemBookingSummary summary = summaryService.findByItemId(1L);
+        assertEquals(3L, summary.getLastBookingId());
+        assertEquals(2L, summary.getLastBookerId());
+        assertNull(summary.getNextBookingId());
+        assertNull(summary.getValidUntil());
+        verify(summaryRepository, times(1)).save(any());
+    }
+
+    @Test
+    void refresh() {
+        LocalDateTime nextChange = LocalDateTime.now().plusDays(2);
+        when(bookingRepository.findNextBookingsByItem_Id(anyLong(), any(), any()))
+                .thenReturn(List.of(new BookingDtoForItem(5L, 4L)));
+        when(bookingRepository.findNextChangeByItem_Id(anyLong(), any()))
+                .thenReturn(nextChange);
+        ItemBookingSummary summary = summaryService.refresh(1L);
+        assertEquals(1L, summary.getItemId());
+        assertNull(summary.getLastBookingId());
+        assertEquals(5L, summary.getNextBookingId());
+        assertEquals(4L, summary.getNextBookerId());
+        assertEquals(nextChange, summary.getValidUntil());
+    }
+
+    @Test
+    void refreshExpired() {
+        when(summaryRepository.findExpiredItemIds(any()))
+                .thenReturn(List.of(1L, 2L));
+        when(bookingRepository.findLastBookingsByItem_Id(anyLong(), any(), any()))
+                .thenReturn(Collections.emptyList());
+        summaryService.refreshExpired();
+        verify(summaryRepository, times(2)).save(any());
+        verify(bookingRepository, times(1)).findNextChangeByItem_Id(eq(1L), any());
+        verify(bookingRepository, times(1)).findNextChangeByItem_Id(eq(2L), any());
+    }
+}
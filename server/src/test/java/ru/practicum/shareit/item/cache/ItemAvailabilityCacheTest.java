@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.IntervalDto;
+import ru.practicum.shareit.item.event.ItemBookingsChangedEvent;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemAvailabilityCacheTest {
+
+    private ItemAvailabilityCache cache;
+    private List<LocalDateTime> loads;
+    private List<IntervalDto> busy;
+
+    @BeforeEach
+    void beforeEach() {
+        cache = new ItemAvailabilityCache(100, Duration.ofMinutes(5), Duration.ofDays(1), new SimpleMeterRegistry());
+        loads = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        busy = List.of(new IntervalDto(start, start.plusHours(1)));
+    }
+
+    @Test
+    void loadsOncePerItem() {
+        LocalDateTime from = LocalDateTime.now().plusMinutes(1);
+        assertEquals(busy, cache.getBusy(1L, from, this::load));
+        assertEquals(busy, cache.getBusy(1L, from.plusDays(1), this::load));
+        assertEquals(1, loads.size());
+        assertEquals(LocalDate.now().atStartOfDay().minusDays(1), loads.get(0));
+        cache.getBusy(2L, from, this::load);
+        assertEquals(2, loads.size());
+    }
+
+    @Test
+    void servesWindowsStartingBeforeLoad() {
+        LocalDateTime now = LocalDateTime.now();
+        assertEquals(busy, cache.getBusy(1L, now.minusSeconds(5), this::load));
+        assertEquals(busy, cache.getBusy(1L, LocalDate.now().atStartOfDay(), this::load));
+        assertEquals(busy, cache.getBusy(1L, LocalDate.now().atStartOfDay().minusHours(12), this::load));
+        assertEquals(1, loads.size());
+    }
+
+    @Test
+    void readsWindowsBeyondHorizonFromLoader() {
+        cache.getBusy(1L, LocalDateTime.now().plusMinutes(1), this::load);
+        LocalDateTime past = LocalDate.now().atStartOfDay().minusDays(2);
+        cache.getBusy(1L, past, this::load);
+        assertEquals(2, loads.size());
+        assertEquals(past, loads.get(1));
+    }
+
+    @Test
+    void evictsOnEvents() {
+        LocalDateTime from = LocalDateTime.now().plusMinutes(1);
+        cache.getBusy(1L, from, this::load);
+        cache.getBusy(2L, from, this::load);
+        cache.onItemBookingsChanged(new ItemBookingsChangedEvent(1L));
+        cache.getBusy(1L, from, this::load);
+        cache.getBusy(2L, from, this::load);
+        assertEquals(3, loads.size());
+        cache.onItemChanged(new ItemChangedEvent(2L));
+        cache.getBusy(2L, from, this::load);
+        assertEquals(4, loads.size());
+    }
+
+    private List<IntervalDto> load(LocalDateTime after) {
+        loads.add(after);
+        return busy;
+    }
+}
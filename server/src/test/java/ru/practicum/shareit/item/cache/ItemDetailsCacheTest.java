@@ -0,0 +1,122 @@
+package ru.practicum.shareit.item.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDtoWithBooking;
+import ru.practicum.shareit.item.event.ItemBookingsChangedEvent;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemDetailsCacheTest {
+
+    private MeterRegistry meterRegistry;
+    private ItemDetailsCache cache;
+    private ItemDtoWithBooking item;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ItemDetailsCache(100, Duration.ofMinutes(5), meterRegistry);
+        item = new ItemDtoWithBooking(1L, "item1", "description1", true, null, null, new ArrayList<>(), 0);
+    }
+
+    @Test
+    void getLoadsOnce() {
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals(item, cache.get(1L, true, () -> load(loads, null)));
+        assertEquals(item, cache.get(1L, true, () -> load(loads, null)));
+        assertEquals(1, loads.get());
+        cache.get(1L, false, () -> load(loads, null));
+        assertEquals(2, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "itemDetails")
+                .tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void expiresAtValidUntil() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(1L, true, () -> load(loads, LocalDateTime.now().minusSeconds(1)));
+        cache.get(1L, true, () -> load(loads, LocalDateTime.now().plusMinutes(1)));
+        assertEquals(2, loads.get());
+        cache.get(1L, true, () -> load(loads, null));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evictsOnEvents() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(1L, true, () -> load(loads, null));
+        cache.get(1L, false, () -> load(loads, null));
+        cache.get(2L, true, () -> load(loads, null));
+        cache.onItemBookingsChanged(new ItemBookingsChangedEvent(1L));
+        cache.get(1L, true, () -> load(loads, null));
+        cache.get(1L, false, () -> load(loads, null));
+        assertEquals(4, loads.get());
+        cache.onItemChanged(new ItemChangedEvent(1L));
+        cache.get(1L, false, () -> load(loads, null));
+        cache.get(2L, true, () -> load(loads, null));
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void evictionDuringLoadDropsLoadedEntry() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ItemDtoWithBooking> loaded = executor.submit(() -> cache.get(1L, false, () -> {
+                loading.countDown();
+                await(release);
+                return load(loads, null);
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            AtomicReference<Thread> evicting = new AtomicReference<>();
+            Future<?> evicted = executor.submit(() -> {
+                evicting.set(Thread.currentThread());
+                cache.onItemChanged(new ItemChangedEvent(1L));
+            });
+            // загрузку отпускаем, когда вытеснение уже ждёт её
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while ((evicting.get() == null || evicting.get().getState() != Thread.State.BLOCKED)
+                    && !evicted.isDone() && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            loaded.get(5, TimeUnit.SECONDS);
+            evicted.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        // вытеснение началось до конца загрузки, но загруженный ответ его не пережил
+        cache.get(1L, false, () -> load(loads, null));
+        assertEquals(2, loads.get());
+    }
+
+    private ItemDetailsCache.Entry load(AtomicInteger loads, LocalDateTime validUntil) {
+        loads.incrementAndGet();
+        return new ItemDetailsCache.Entry(item, validUntil);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
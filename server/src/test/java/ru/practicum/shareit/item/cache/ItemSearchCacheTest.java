@@ -0,0 +1,82 @@
+package ru.practicum.shareit.item.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.event.ItemSearchChangedEvent;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemSearchCacheTest {
+
+    private MeterRegistry meterRegistry;
+    private ItemSearchCache cache;
+    private AtomicInteger loads;
+    private Supplier<List<ItemDto>> drills;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ItemSearchCache(100, Duration.ofMinutes(1), meterRegistry);
+        loads = new AtomicInteger();
+        drills = () -> {
+            loads.incrementAndGet();
+            return List.of(new ItemDto(1L, "Дрель", "Простая дрель", true, null));
+        };
+    }
+
+    @Test
+    void normalize() {
+        assertEquals("дрель ударная", ItemSearchCache.normalize("  ДРЕЛЬ \t Ударная "));
+    }
+
+    @Test
+    void getPageLoadsOnce() {
+        cache.getPage("дрель", 0, 20, drills);
+        cache.getPage("дрель", 0, 20, drills);
+        cache.getPage("дрель", 20, 20, drills);
+        cache.getPageAfter("дрель", 0, 20, drills);
+        assertEquals(3, loads.get());
+        assertEquals(0.25, meterRegistry.get("shareit.search.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void evictsQueriesMatchingChangedItem() {
+        cache.getPage("дрель", 0, 20, drills);
+        cache.getPage("лестница", 0, 20, List::of);
+        cache.onItemSearchChanged(new ItemSearchChangedEvent(2L, List.of("Стремянка", "Лестница-стремянка")));
+        cache.getPage("дрель", 0, 20, drills);
+        assertEquals(1, loads.get());
+        AtomicInteger ladderLoads = new AtomicInteger();
+        cache.getPage("лестница", 0, 20, () -> {
+            ladderLoads.incrementAndGet();
+            return List.of();
+        });
+        assertEquals(1, ladderLoads.get());
+    }
+
+    @Test
+    void evictsQueriesContainingChangedItem() {
+        cache.getPage("дрель", 0, 20, drills);
+        cache.onItemSearchChanged(new ItemSearchChangedEvent(1L, List.of("Шуруповёрт", "Аккумуляторный")));
+        cache.getPage("дрель", 0, 20, drills);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void skipsResultLoadedDuringChange() {
+        cache.getPage("дрель", 0, 20, () -> {
+            cache.onItemSearchChanged(new ItemSearchChangedEvent(3L, List.of("Отвёртка", "")));
+            return drills.get();
+        });
+        cache.getPage("дрель", 0, 20, drills);
+        assertEquals(2, loads.get());
+    }
+}
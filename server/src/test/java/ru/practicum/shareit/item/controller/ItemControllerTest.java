@@ -10,11 +10,14 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.IntervalDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithBooking;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.CursorKind;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
@@ -26,6 +29,7 @@ import java.util.List;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ItemController.class)
@@ -70,6 +74,39 @@ class ItemControllerTest {
                 .findAll(item.getOwner().getId(), 0, 20);
     }
 
+    @Test
+    void findAllWithCursor() throws Exception {
+        Item item = createItem();
+        List<ItemDtoWithBooking> items = List.of(itemMapper.toItemDtoWithBooking(item));
+        when(itemService.findAll(item.getOwner().getId(), null, 1)).thenReturn(items);
+        mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", item.getOwner().getId())
+                        .param("cursor", "")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER,
+                        PageCursor.of(CursorKind.ITEMS, 1L).encode()))
+                .andExpect(content().json("[{\"id\": 1,\"name\": \"item1\"}]"));
+        when(itemService.findAll(item.getOwner().getId(), PageCursor.of(CursorKind.ITEMS, 1L), 1))
+                .thenReturn(List.of());
+        mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", item.getOwner().getId())
+                        .param("cursor", PageCursor.of(CursorKind.ITEMS, 1L).encode())
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(PageCursor.NEXT_CURSOR_HEADER))
+                .andExpect(content().json("[]"));
+        mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", item.getOwner().getId())
+                        .param("cursor", "%%%"))
+                .andExpect(status().isBadRequest());
+        // курсор поиска к списку вещей владельца не подходит
+        mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", item.getOwner().getId())
+                        .param("cursor", PageCursor.of(CursorKind.SEARCH, 1L).encode()))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void create() throws Exception {
         Item item = createItem();
@@ -142,6 +179,34 @@ class ItemControllerTest {
         verify(itemService, times(1)).findById(1, 1);
     }
 
+    @Test
+    void findComments() throws Exception {
+        mapper.registerModule(new JavaTimeModule());
+        CommentDto commentDto = createCommentDto();
+        when(itemService.findComments(1, null, 1)).thenReturn(List.of(commentDto));
+        mockMvc.perform(get("/items/1/comments")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER,
+                        PageCursor.of(CursorKind.COMMENTS, commentDto.getCreated(), commentDto.getId()).encode()))
+                .andExpect(content().json("[{\"id\": 1,\"text\": \"Great\", \"authorName\": \"user1\"}]"));
+        verify(itemService, times(1)).findComments(1, null, 1);
+    }
+
+    @Test
+    void findAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.parse("2022-09-10T10:00");
+        LocalDateTime to = LocalDateTime.parse("2022-09-12T10:00");
+        when(itemService.findAvailability(1, from, to))
+                .thenReturn(List.of(new IntervalDto(from, LocalDateTime.parse("2022-09-11T10:00"))));
+        mockMvc.perform(get("/items/1/availability")
+                        .param("from", "2022-09-10T10:00:00")
+                        .param("to", "2022-09-12T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"start\": \"2022-09-10T10:00:00\", \"end\": \"2022-09-11T10:00:00\"}]"));
+        verify(itemService, times(1)).findAvailability(1, from, to);
+    }
+
     @Test
     void deleteItemById() throws Exception {
         mockMvc.perform(delete("/items/1"))
@@ -149,6 +214,16 @@ class ItemControllerTest {
         verify(itemService, times(1)).deleteById(1);
     }
 
+    @Test
+    void suggest() throws Exception {
+        when(itemService.suggest("дре", 10)).thenReturn(List.of("Дрель", "Дрель ударная"));
+        mockMvc.perform(get("/items/suggest")
+                        .param("prefix", "дре"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[\"Дрель\", \"Дрель ударная\"]"));
+        verify(itemService, times(1)).suggest("дре", 10);
+    }
+
     @Test
     void findItemByText() throws Exception {
         List<ItemDto> items = new ArrayList<>();
@@ -1,17 +1,24 @@
 package ru.practicum.shareit.item.repository;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.dto.ItemCommentCount;
+import ru.practicum.shareit.item.dto.ItemCommentView;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -24,6 +31,8 @@ class CommentRepositoryTest {
     UserRepository userRepository;
     @Autowired
     CommentRepository commentRepository;
+    @Autowired
+    EntityManager entityManager;
 
     private Item item;
     private User user;
@@ -51,4 +60,53 @@ class CommentRepositoryTest {
         assertEquals(1, comments.size());
         assertSame(comment, comments.get(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findRecentByItemIds() {
+        final Comment newer = commentRepository.save(new Comment(2L, "Good", item, user,
+                comment.getCreated().plusMinutes(1)));
+        final List<ItemCommentView> comments = commentRepository.findRecentByItemIds(Set.of(item.getId()), 1);
+        assertNotNull(comments);
+        assertEquals(1, comments.size());
+        assertEquals(item.getId(), comments.get(0).getItemId());
+        assertEquals(newer.getId(), comments.get(0).getId());
+        assertEquals(newer.getText(), comments.get(0).getText());
+        assertEquals(user.getName(), comments.get(0).getAuthorName());
+        assertNotNull(comments.get(0).getCreated());
+    }
+
+    @Test
+    void countByItemIds() {
+        commentRepository.save(new Comment(2L, "Good", item, user, LocalDateTime.now()));
+        final List<ItemCommentCount> counts = commentRepository.countByItemIds(Set.of(item.getId()));
+        assertEquals(1, counts.size());
+        assertEquals(item.getId(), counts.get(0).getItemId());
+        assertEquals(2L, counts.get(0).getCount());
+        assertEquals(2L, commentRepository.countByItem_Id(item.getId()));
+    }
+
+    @Test
+    void findRecentByItem_IdBefore() {
+        final LocalDateTime created = LocalDateTime.now().plusMinutes(1).truncatedTo(ChronoUnit.SECONDS);
+        final Comment first = commentRepository.save(new Comment(2L, "Good", item, user, created));
+        final Comment second = commentRepository.save(new Comment(3L, "Fine", item, user, created));
+        final List<ItemCommentView> firstPage = commentRepository
+                .findRecentByItem_Id(item.getId(), PageRequest.of(0, 1));
+        assertEquals(second.getId(), firstPage.get(0).getId());
+        final List<ItemCommentView> nextPage = commentRepository.findRecentByItem_IdBefore(item.getId(),
+                created, second.getId(), PageRequest.of(0, 20));
+        assertEquals(2, nextPage.size());
+        assertEquals(first.getId(), nextPage.get(0).getId());
+        assertEquals(comment.getId(), nextPage.get(1).getId());
+    }
+
+    @Test
+    void findAllByItem_IdLoadsAuthor() {
+        entityManager.flush();
+        entityManager.clear();
+        final Comment found = commentRepository.findAllByItem_Id(item.getId()).get(0);
+        assertTrue(Hibernate.isInitialized(found.getAuthor()));
+        assertFalse(Hibernate.isInitialized(found.getItem()));
+        assertEquals(user.getName(), found.getAuthor().getName());
+    }
+}
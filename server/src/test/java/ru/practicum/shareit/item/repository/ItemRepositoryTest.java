@@ -1,17 +1,21 @@
 package ru.practicum.shareit.item.repository;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.requests.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -26,6 +30,8 @@ class ItemRepositoryTest {
     UserRepository userRepository;
     @Autowired
     ItemRequestRepository itemRequestRepository;
+    @Autowired
+    EntityManager entityManager;
 
     private Item item;
     private User user1;
@@ -52,16 +58,25 @@ class ItemRepositoryTest {
     @Test
     void search() {
         final String text = item.getDescription().substring(0, 3);
-        final List<Item> items = itemRepository.search(text, Pageable.unpaged());
+        itemRepository.save(new Item(2L, "item2", "description2",
+                false, user1, null));
+        final List<ItemDto> items = itemRepository.search(text, Pageable.unpaged());
         assertNotNull(items);
         assertEquals(1, items.size());
-        assertEquals(item, items.get(0));
+        assertEquals(new ItemDto(item.getId(), item.getName(), item.getDescription(),
+                true, itemRequest.getId()), items.get(0));
 
         final String incorrectText = "incorrect";
-        final List<Item> emptyItems = itemRepository.search(incorrectText, Pageable.unpaged());
+        final List<ItemDto> emptyItems = itemRepository.search(incorrectText, Pageable.unpaged());
         assertTrue(emptyItems.isEmpty());
     }
 
+    @Test
+    void existsByOwner_Id() {
+        assertTrue(itemRepository.existsByOwner_Id(user1.getId()));
+        assertFalse(itemRepository.existsByOwner_Id(user2.getId()));
+    }
+
     @Test
     void findAllByItemRequest_Id() {
         final List<Item> items = itemRepository.findAllByItemRequest_Id(itemRequest.getId());
@@ -78,4 +93,62 @@ class ItemRepositoryTest {
         assertEquals(1, byOwner.size());
         assertSame(item, byOwner.get(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllAvailable() {
+        itemRepository.save(new Item(2L, "item2", "description2",
+                false, user1, null));
+        final List<ItemDto> items = itemRepository.findAllAvailable();
+        assertEquals(1, items.size());
+        assertEquals(new ItemDto(item.getId(), item.getName(), item.getDescription(),
+                true, itemRequest.getId()), items.get(0));
+    }
+
+    @Test
+    void findAllItemDtoByIds() {
+        final Item item2 = itemRepository.save(new Item(2L, "item2", "description2",
+                true, user1, null));
+        final List<ItemDto> items = itemRepository.findAllItemDtoByIds(List.of(item.getId(), item2.getId()));
+        assertEquals(2, items.size());
+        assertEquals(item.getId(), items.get(0).getId());
+        assertEquals(itemRequest.getId(), items.get(0).getRequestId());
+        // вещь без запроса не теряется: id запроса читается из внешнего ключа, без join
+        assertEquals(item2.getId(), items.get(1).getId());
+        assertNull(items.get(1).getRequestId());
+    }
+
+    @Test
+    void searchAfter() {
+        final Item item2 = itemRepository.save(new Item(2L, "item2", "description2",
+                true, user1, null));
+        final List<ItemDto> items = itemRepository.searchAfter("descr", item.getId(), PageRequest.of(0, 20));
+        assertEquals(1, items.size());
+        assertEquals(item2.getId(), items.get(0).getId());
+        assertTrue(itemRepository.searchAfter("descr", item2.getId(), PageRequest.of(0, 20)).isEmpty());
+    }
+
+    @Test
+    void findByOwnerIdAndIdGreaterThanOrderById() {
+        final Item item2 = itemRepository.save(new Item(2L, "item2", "description2",
+                true, user1, null));
+        assertEquals(List.of(item), itemRepository
+                .findByOwnerIdAndIdGreaterThanOrderById(user1.getId(), 0, PageRequest.of(0, 1)));
+        assertEquals(List.of(item2), itemRepository
+                .findByOwnerIdAndIdGreaterThanOrderById(user1.getId(), item.getId(), PageRequest.of(0, 1)));
+    }
+
+    @Test
+    void findWithOwnerAndRequestById() {
+        entityManager.flush();
+        entityManager.clear();
+        final Item lazy = itemRepository.findById(item.getId()).orElseThrow();
+        assertFalse(Hibernate.isInitialized(lazy.getOwner()));
+        assertEquals(user1.getId(), lazy.getOwner().getId());
+        entityManager.clear();
+        final Item found = itemRepository.findWithOwnerAndRequestById(item.getId()).orElseThrow();
+        assertTrue(Hibernate.isInitialized(found.getOwner()));
+        assertTrue(Hibernate.isInitialized(found.getItemRequest()));
+        assertTrue(Hibernate.isInitialized(found.getItemRequest().getRequestor()));
+        assertEquals(user2.getName(), found.getItemRequest().getRequestor().getName());
+    }
+}
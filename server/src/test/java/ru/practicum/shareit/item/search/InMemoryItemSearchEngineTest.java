@@ -0,0 +1,76 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InMemoryItemSearchEngineTest {
+
+    private ItemRepository itemRepository;
+    private MeterRegistry meterRegistry;
+    private InMemoryItemSearchEngine engine;
+
+    @BeforeEach
+    void beforeEach() {
+        itemRepository = mock(ItemRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        engine = new InMemoryItemSearchEngine(itemRepository, meterRegistry);
+        when(itemRepository.findAllAvailable()).thenReturn(List.of(
+                new ItemDto(1L, "Дрель", "Простая дрель", true, null),
+                new ItemDto(2L, "Отвертка", "Аккумуляторная отвертка", true, null),
+                new ItemDto(3L, "Дрель ударная", "Мощная дрель", true, null)));
+        engine.rebuild();
+    }
+
+    @Test
+    void rebuild() {
+        assertEquals(3.0, meterRegistry.get("shareit.search.index.items").gauge().value());
+        assertTrue(meterRegistry.get("shareit.search.index.memory").gauge().value() > 0);
+        assertEquals(1, meterRegistry.get("shareit.search.index.rebuild").timer().count());
+    }
+
+    @Test
+    void search() {
+        ItemDto item3 = new ItemDto(3L, "Дрель ударная", "Мощная дрель", true, null);
+        when(itemRepository.findAllItemDtoByIds(List.of(3L))).thenReturn(List.of(item3));
+        List<ItemDto> items = engine.search("дрель", PageRequest.of(1, 1));
+        assertEquals(List.of(item3), items);
+        assertTrue(engine.search("дрель", PageRequest.of(2, 1)).isEmpty());
+        assertTrue(engine.search("пила", PageRequest.of(0, 20)).isEmpty());
+        verify(itemRepository, times(1)).findAllItemDtoByIds(any());
+    }
+
+    @Test
+    void searchAfter() {
+        ItemDto item3 = new ItemDto(3L, "Дрель ударная", "Мощная дрель", true, null);
+        when(itemRepository.findAllItemDtoByIds(List.of(3L))).thenReturn(List.of(item3));
+        assertEquals(List.of(item3), engine.searchAfter("дрель", 2L, 20));
+        assertTrue(engine.searchAfter("дрель", 3L, 20).isEmpty());
+        verify(itemRepository, times(1)).findAllItemDtoByIds(any());
+    }
+
+    @Test
+    void indexAndRemove() {
+        Item item = new Item(2L, "Отвертка", "Аккумуляторная отвертка", false, null, null);
+        engine.index(item);
+        assertTrue(engine.search("отвертка", PageRequest.of(0, 20)).isEmpty());
+        item.setAvailable(true);
+        item.setName("Пила");
+        engine.index(item);
+        ItemDto itemDto = new ItemDto(2L, "Пила", "Аккумуляторная отвертка", true, null);
+        when(itemRepository.findAllItemDtoByIds(List.of(2L))).thenReturn(List.of(itemDto));
+        assertEquals(List.of(itemDto), engine.search("пила", PageRequest.of(0, 20)));
+        engine.remove(2L);
+        assertTrue(engine.search("пила", PageRequest.of(0, 20)).isEmpty());
+    }
+}
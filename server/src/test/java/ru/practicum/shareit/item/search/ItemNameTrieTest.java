@@ -0,0 +1,56 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemNameTrieTest {
+
+    private ItemNameTrie trie;
+
+    @BeforeEach
+    void beforeEach() {
+        trie = new ItemNameTrie();
+        trie.put(1L, "Дрель ударная");
+        trie.put(2L, "Дрель");
+        trie.put(3L, "дрель");
+        trie.put(4L, "Дровокол");
+        trie.put(5L, "Лестница");
+    }
+
+    @Test
+    void findByPrefix() {
+        assertEquals(List.of("Дрель", "Дрель ударная", "Дровокол"), trie.findByPrefix(" ДР", 10));
+        assertEquals(List.of("Дрель", "Дрель ударная"), trie.findByPrefix("дрель", 10));
+        assertEquals(List.of("Дрель ударная"), trie.findByPrefix("дрель  уд", 10));
+        assertEquals(List.of("Дрель"), trie.findByPrefix("д", 1));
+        assertTrue(trie.findByPrefix("дрельщик", 10).isEmpty());
+        assertTrue(trie.findByPrefix("ф", 10).isEmpty());
+        assertTrue(trie.findByPrefix(" ", 10).isEmpty());
+    }
+
+    @Test
+    void putReplacesName() {
+        trie.put(4L, "Лобзик");
+        assertEquals(List.of("Дрель", "Дрель ударная"), trie.findByPrefix("др", 10));
+        assertEquals(List.of("Лестница", "Лобзик"), trie.findByPrefix("л", 10));
+        assertEquals(5, trie.itemCount());
+    }
+
+    @Test
+    void remove() {
+        trie.remove(2L);
+        assertEquals(List.of("дрель", "Дрель ударная"), trie.findByPrefix("дрель", 10));
+        trie.remove(3L);
+        trie.remove(4L);
+        assertEquals(List.of("Дрель ударная"), trie.findByPrefix("др", 10));
+        trie.remove(1L);
+        assertTrue(trie.findByPrefix("д", 10).isEmpty());
+        assertEquals(List.of("Лестница"), trie.findByPrefix("л", 10));
+        trie.clear();
+        assertEquals(0, trie.itemCount());
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemSearchIndexTest {
+
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void beforeEach() {
+        index = new ItemSearchIndex();
+        index.put(3L, "Дрель", "Простая дрель");
+        index.put(1L, "Аккумуляторная дрель", "Дрель + аккумулятор");
+        index.put(2L, "Отвертка", "Аккумуляторная отвертка");
+    }
+
+    @Test
+    void tokenize() {
+        assertEquals(Set.of("дрель", "аккумулятор"), ItemSearchIndex.tokenize("Дрель + аккумулятор", null));
+        assertTrue(ItemSearchIndex.tokenize(" ,. ").isEmpty());
+    }
+
+    @Test
+    void search() {
+        assertArrayEquals(new long[]{1L, 3L}, index.search("дРелЬ"));
+        assertArrayEquals(new long[]{1L, 2L}, index.search("аккум"));
+        assertArrayEquals(new long[]{1L}, index.search("ная дрель"));
+        // подстрока в любом месте слова, как у like-поиска
+        assertArrayEquals(new long[]{1L, 3L}, index.search("ель"));
+        assertArrayEquals(new long[]{1L}, index.search("+ акк"));
+        assertArrayEquals(new long[]{1L}, index.search("+"));
+        // оба токена есть, но не подряд
+        assertArrayEquals(new long[0], index.search("аккум дрель"));
+        assertArrayEquals(new long[0], index.search("пила"));
+        assertArrayEquals(new long[0], index.search("   "));
+    }
+
+    @Test
+    void putReplacesTokens() {
+        index.put(3L, "Пила", "Ручная пила");
+        assertArrayEquals(new long[]{1L}, index.search("дрель"));
+        assertArrayEquals(new long[]{3L}, index.search("пила"));
+        assertEquals(3, index.itemCount());
+    }
+
+    @Test
+    void remove() {
+        index.remove(1L);
+        assertArrayEquals(new long[]{3L}, index.search("дрель"));
+        assertArrayEquals(new long[]{2L}, index.search("аккумуляторная"));
+        assertEquals(2, index.itemCount());
+        index.clear();
+        assertEquals(0, index.tokenCount());
+        assertEquals(0, index.estimateMemoryBytes());
+    }
+
+    @Test
+    void unionAndIntersect() {
+        assertArrayEquals(new long[]{1L, 2L, 3L, 5L},
+                ItemSearchIndex.union(new long[]{1L, 3L}, new long[]{2L, 3L, 5L}));
+        assertArrayEquals(new long[]{3L},
+                ItemSearchIndex.intersect(new long[]{1L, 3L}, new long[]{2L, 3L, 5L}));
+    }
+}
@@ -1,28 +1,49 @@
 package ru.practicum.shareit.item.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.dto.BookingDtoForItem;
+import ru.practicum.shareit.booking.dto.BookingIntervalView;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.enums.Status;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+import ru.practicum.shareit.exception.BookingException;
+import ru.practicum.shareit.exception.CursorException;
 import ru.practicum.shareit.exception.StorageException;
+import ru.practicum.shareit.item.cache.ItemAvailabilityCache;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.cache.ItemSearchCache;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.event.ItemSearchChangedEvent;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.pagination.CursorKind;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.requests.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -37,6 +58,10 @@ class ItemServiceImplTest {
     private BookingRepository bookingRepository;
     private CommentRepository commentRepository;
     private CommentMapper commentMapper;
+    private ItemBookingSummaryService itemBookingSummaryService;
+    private ItemSearchEngine itemSearchEngine;
+    private ItemNameSuggester itemNameSuggester;
+    private ApplicationEventPublisher eventPublisher;
 
     @BeforeEach
     void beforeEach() {
@@ -48,9 +73,21 @@ class ItemServiceImplTest {
         itemMapper = new ItemMapper();
         BookingMapper bookingMapper = new BookingMapper();
         commentMapper = new CommentMapper();
+        itemBookingSummaryService = mock(ItemBookingSummaryService.class);
+        itemSearchEngine = mock(ItemSearchEngine.class);
+        itemNameSuggester = mock(ItemNameSuggester.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        ItemDetailsCache itemDetailsCache = new ItemDetailsCache(100, Duration.ofMinutes(5),
+                new SimpleMeterRegistry());
+        ItemSearchCache itemSearchCache = new ItemSearchCache(100, Duration.ofMinutes(1),
+                new SimpleMeterRegistry());
+        ItemAvailabilityCache itemAvailabilityCache = new ItemAvailabilityCache(100, Duration.ofMinutes(5),
+                Duration.ofDays(7), new SimpleMeterRegistry());
         itemService = new ItemServiceImpl(itemRepository, itemMapper,
-                userRepository, bookingRepository, bookingMapper,
-                commentRepository, commentMapper, itemRequestRepository);
+                userRepository, bookingRepository, mock(ArchivedBookingRepository.class), bookingMapper,
+                commentRepository, commentMapper, itemRequestRepository,
+                itemBookingSummaryService, itemSearchEngine, itemNameSuggester, itemDetailsCache,
+                itemSearchCache, itemAvailabilityCache, eventPublisher, 10);
     }
 
     private Item createItem() {
@@ -71,13 +108,20 @@ class ItemServiceImplTest {
                 .thenReturn(Optional.of(item));
         when(itemRepository.findById(incorrectId))
                 .thenThrow(new StorageException("Вещи с Id = " + incorrectId + " нет в БД"));
+        when(itemBookingSummaryService.findByItemId(itemId))
+                .thenReturn(new ItemBookingSummary(itemId, 1L, 2L, null, null, null));
         ItemDtoWithBooking itemDtoWithBooking = itemService.findById(itemId, item.getOwner().getId());
         assertNotNull(itemDtoWithBooking);
         assertEquals("item1", itemDtoWithBooking.getName());
+        assertEquals(new BookingDtoForItem(1L, 2L), itemDtoWithBooking.getLastBooking());
+        assertNull(itemDtoWithBooking.getNextBooking());
+        assertSame(itemDtoWithBooking, itemService.findById(itemId, item.getOwner().getId()));
+        verify(itemBookingSummaryService, times(1)).findByItemId(itemId);
         Throwable thrown = assertThrows(StorageException.class,
                 () -> itemService.findById(incorrectId, item.getOwner().getId()));
         assertNotNull(thrown.getMessage());
-        verify(itemRepository, times(1)).findById(itemId);
+        // при загрузке в кэш вещь перечитывается
+        verify(itemRepository, times(3)).findById(itemId);
     }
 
     @Test
@@ -85,8 +129,18 @@ class ItemServiceImplTest {
         Item item = createItem();
         User userWriteComment = item.getItemRequest().getRequestor();
         Comment comment = createComment(item, userWriteComment);
-        when(commentRepository.findAllByItem_Id(item.getId()))
-                .thenReturn(Collections.singletonList(comment));
+        ItemCommentView commentView = mock(ItemCommentView.class);
+        when(commentView.getItemId()).thenReturn(item.getId());
+        when(commentView.getId()).thenReturn(comment.getId());
+        when(commentView.getText()).thenReturn(comment.getText());
+        when(commentView.getAuthorName()).thenReturn(userWriteComment.getName());
+        when(commentRepository.findRecentByItemIds(Set.of(item.getId()), 10))
+                .thenReturn(Collections.singletonList(commentView));
+        ItemCommentCount commentCount = mock(ItemCommentCount.class);
+        when(commentCount.getItemId()).thenReturn(item.getId());
+        when(commentCount.getCount()).thenReturn(12L);
+        when(commentRepository.countByItemIds(Set.of(item.getId())))
+                .thenReturn(Collections.singletonList(commentCount));
         when(itemRepository.findByOwnerId(item.getOwner().getId(), PageRequest.of(0, 20)))
                 .thenReturn(Collections.singletonList(item));
         final List<ItemDtoWithBooking> items = itemService
@@ -94,8 +148,14 @@ class ItemServiceImplTest {
         assertNotNull(items);
         assertEquals(1, items.size());
         assertEquals(item.getName(), items.get(0).getName());
+        assertEquals(1, items.get(0).getComments().size());
+        assertEquals("Great", items.get(0).getComments().get(0).getText());
+        assertEquals(12L, items.get(0).getCommentCount());
         verify(itemRepository, times(1))
                 .findByOwnerId(item.getOwner().getId(), PageRequest.of(0, 20));
+        verify(bookingRepository, times(1))
+                .findLastAndNextBookingsByItemIds(eq(Set.of(item.getId())), any());
+        verify(commentRepository, never()).findAllByItem_Id(anyLong());
     }
 
     @Test
@@ -113,6 +173,7 @@ class ItemServiceImplTest {
         assertEquals("description1", itemDto.getDescription());
         assertEquals(item.getId(), itemDto.getId());
         verify(itemRepository, times(1)).save(item);
+        verify(itemSearchEngine, times(1)).index(item);
     }
 
     @Test
@@ -176,6 +237,8 @@ class ItemServiceImplTest {
         assertEquals("description1", itemDto.getDescription());
         assertEquals(item.getId(), itemDto.getId());
         verify(itemRepository, times(1)).save(any(Item.class));
+        verify(eventPublisher, times(1)).publishEvent(new ItemSearchChangedEvent(itemId,
+                List.of("item1", "description1", "item2", "description1")));
     }
 
     @Test
@@ -183,20 +246,74 @@ class ItemServiceImplTest {
         Item item = createItem();
         itemService.deleteById(item.getId());
         verify(itemRepository, times(1)).deleteById(item.getId());
+        verify(itemSearchEngine, times(1)).remove(item.getId());
+        verify(itemNameSuggester, times(1)).remove(item.getId());
+        verify(eventPublisher, times(1)).publishEvent(new ItemChangedEvent(item.getId()));
     }
 
     @Test
     void searchItem() {
-        List<Item> items = new ArrayList<>();
+        List<ItemDto> items = new ArrayList<>();
         Item item = createItem();
-        items.add(item);
+        items.add(itemMapper.toItemDto(item));
         String text = item.getDescription().substring(0, 3);
-        when(itemRepository.search(text, PageRequest.of(0, 20))).thenReturn(items);
+        when(itemSearchEngine.search(text, PageRequest.of(0, 20))).thenReturn(items);
         List<ItemDto> itemDtos = itemService.searchItem(text, 0, 20);
+        assertEquals(itemDtos, itemService.searchItem(" " + text.toUpperCase() + " ", 0, 20));
         assertNotNull(itemDtos);
         assertEquals(1, itemDtos.size());
         assertEquals(item.getName(), itemDtos.get(0).getName());
-        verify(itemRepository, times(1))
+        verify(itemSearchEngine, times(1))
                 .search(text, PageRequest.of(0, 20));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findComments() {
+        Item item = createItem();
+        ItemCommentView commentView = mock(ItemCommentView.class);
+        when(commentView.getId()).thenReturn(1L);
+        when(commentView.getText()).thenReturn("Great");
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(commentRepository.findRecentByItem_Id(item.getId(), PageRequest.of(0, 20)))
+                .thenReturn(List.of(commentView));
+        List<CommentDto> comments = itemService.findComments(item.getId(), null, 20);
+        assertEquals(1, comments.size());
+        assertEquals("Great", comments.get(0).getText());
+        assertThrows(CursorException.class,
+                () -> itemService.findComments(item.getId(), PageCursor.of(CursorKind.ITEMS, 1L), 20));
+        verify(commentRepository, never()).findRecentByItem_IdBefore(anyLong(), any(), anyLong(), any());
+    }
+
+    @Test
+    void findAvailability() {
+        Item item = createItem();
+        LocalDateTime from = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        List<BookingIntervalView> bookings = List.of(interval(from.plusHours(1), from.plusHours(3)),
+                interval(from.plusHours(2), from.plusHours(4)),
+                interval(from.plusHours(4), from.plusHours(5)),
+                interval(from.plusHours(8), from.plusHours(9)));
+        when(bookingRepository.findIntervalsEndingAfter(eq(item.getId()), eq(Set.of(Status.WAITING, Status.APPROVED)),
+                any(LocalDateTime.class)))
+                .thenReturn(bookings);
+        List<IntervalDto> expected = List.of(new IntervalDto(from, from.plusHours(1)),
+                new IntervalDto(from.plusHours(5), from.plusHours(8)),
+                new IntervalDto(from.plusHours(9), from.plusHours(10)));
+        assertEquals(expected, itemService.findAvailability(item.getId(), from, from.plusHours(10)));
+        assertEquals(List.of(new IntervalDto(from.plusHours(5), from.plusHours(6))),
+                itemService.findAvailability(item.getId(), from.plusHours(3), from.plusHours(6)));
+        verify(bookingRepository, times(1)).findIntervalsEndingAfter(anyLong(), any(), any());
+
+        assertThrows(BookingException.class,
+                () -> itemService.findAvailability(item.getId(), from, from));
+        item.setAvailable(false);
+        assertTrue(itemService.findAvailability(item.getId(), from, from.plusHours(10)).isEmpty());
+    }
+
+    private static BookingIntervalView interval(LocalDateTime start, LocalDateTime end) {
+        BookingIntervalView interval = mock(BookingIntervalView.class);
+        when(interval.getStart()).thenReturn(start);
+        when(interval.getEnd()).thenReturn(end);
+        return interval;
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.pagination;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.CursorException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void encodeAndDecode() {
+        PageCursor cursor = PageCursor.of(CursorKind.BOOKINGS,
+                LocalDateTime.of(2022, 9, 1, 12, 30, 15, 123000000), 42L);
+        assertEquals(cursor, PageCursor.decode(cursor.encode(), CursorKind.BOOKINGS));
+        PageCursor idCursor = PageCursor.of(CursorKind.ITEMS, 7L);
+        PageCursor decoded = PageCursor.decode(idCursor.encode(), CursorKind.ITEMS);
+        assertEquals(idCursor, decoded);
+        assertNull(decoded.getTime());
+    }
+
+    @Test
+    void decodeEmpty() {
+        assertNull(PageCursor.decode(null, CursorKind.ITEMS));
+        assertNull(PageCursor.decode("", CursorKind.ITEMS));
+    }
+
+    @Test
+    void decodeIncorrect() {
+        assertThrows(CursorException.class, () -> PageCursor.decode("not a cursor!", CursorKind.ITEMS));
+        String badKey = PageCursor.of(CursorKind.BOOKINGS, LocalDateTime.now(), 1L).encode().substring(2);
+        assertThrows(CursorException.class, () -> PageCursor.decode(badKey, CursorKind.BOOKINGS));
+    }
+
+    @Test
+    void decodeOtherKind() {
+        String search = PageCursor.of(CursorKind.SEARCH, 1L).encode();
+        assertThrows(CursorException.class, () -> PageCursor.decode(search, CursorKind.ITEMS));
+        String booking = PageCursor.of(CursorKind.BOOKINGS, LocalDateTime.now(), 1L).encode();
+        assertThrows(CursorException.class, () -> PageCursor.decode(booking, CursorKind.REQUESTS));
+    }
+
+    @Test
+    void keyMustMatchKind() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.of(CursorKind.REQUESTS, 1L));
+        assertThrows(IllegalArgumentException.class,
+                () -> PageCursor.of(CursorKind.ITEMS, LocalDateTime.now(), 1L));
+    }
+
+    @Test
+    void next() {
+        assertNull(PageCursor.next(List.of(1L, 2L), 3, id -> PageCursor.of(CursorKind.ITEMS, id)));
+        assertNull(PageCursor.next(List.<Long>of(), 3, id -> PageCursor.of(CursorKind.ITEMS, id)));
+        assertEquals(PageCursor.of(CursorKind.ITEMS, 3L).encode(),
+                PageCursor.next(List.of(1L, 2L, 3L), 3, id -> PageCursor.of(CursorKind.ITEMS, id)));
+    }
+}
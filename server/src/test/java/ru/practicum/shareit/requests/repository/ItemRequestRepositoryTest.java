@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.requests.model.ItemRequest;
@@ -13,6 +14,7 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -63,4 +65,22 @@ class ItemRequestRepositoryTest {
         assertEquals(1, requests.size());
         assertSame(itemRequest, requests.get(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllAfter() {
+        final User user3 = userRepository.save(new User(3L, "user3", "user3@mail.ru"));
+        final LocalDateTime created = LocalDateTime.now().plusMinutes(1).truncatedTo(ChronoUnit.SECONDS);
+        final ItemRequest first = itemRequestRepository.save(new ItemRequest(2L, "itemRequest2",
+                user2, created));
+        final ItemRequest second = itemRequestRepository.save(new ItemRequest(3L, "itemRequest3",
+                user2, created));
+        itemRequestRepository.save(new ItemRequest(4L, "itemRequest4",
+                user3, created.plusMinutes(1)));
+        final List<ItemRequest> firstPage = itemRequestRepository
+                .findAllByRequestor_IdNotOrderByCreatedAscIdAsc(user3.getId(), PageRequest.of(0, 2));
+        assertEquals(List.of(itemRequest, first), firstPage);
+        final List<ItemRequest> nextPage = itemRequestRepository.findAllAfter(user3.getId(),
+                first.getCreated(), first.getId(), PageRequest.of(0, 20));
+        assertEquals(List.of(second), nextPage);
+    }
+}
@@ -2,9 +2,8 @@ package ru.practicum.shareit.requests.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.exception.StorageException;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.repository.ItemRepository;
@@ -106,13 +105,16 @@ class ItemRequestServiceImplTest {
         when(userRepository.findById(itemRequest.getRequestor().getId()))
                 .thenReturn(Optional.of(itemRequest.getRequestor()));
         when(itemRequestRepository
-                .findAll(PageRequest.of(0, 20, Sort.by("created"))))
-                .thenReturn(Page.empty());
+                .findAllByRequestor_IdNotOrderByCreatedAscIdAsc(itemRequest.getRequestor().getId(),
+                        PageRequest.of(1, 20)))
+                .thenReturn(List.of());
         final List<ItemRequestDtoWithItems> itemRequestDtoWithItems = itemRequestService
-                .findAllWithPageable(itemRequest.getRequestor().getId(), 0, 20);
+                .findAllWithPageable(itemRequest.getRequestor().getId(), 20, 20);
         assertNotNull(itemRequestDtoWithItems);
         assertTrue(itemRequestDtoWithItems.isEmpty());
         verify(itemRequestRepository, times(1))
-                .findAll(PageRequest.of(0, 20, Sort.by("created")));
+                .findAllByRequestor_IdNotOrderByCreatedAscIdAsc(itemRequest.getRequestor().getId(),
+                        PageRequest.of(1, 20));
+        verify(itemRequestRepository, never()).findAll(any(Pageable.class));
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.user.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserRepositoryTest {
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private Item item;
+
+    @BeforeEach
+    void beforeEach() {
+        user = userRepository.save(new User(1L, "user1", "user1@mail.ru"));
+        item = itemRepository.save(new Item(1L, "item1", "description1", true, user, null));
+    }
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void findByIdHitsSecondLevelCache() {
+        userRepository.findById(user.getId()).orElseThrow();
+        assertTrue(entityManagerFactory.getCache().contains(User.class, user.getId()));
+        CacheRegionStatistics users = regionStatistics("users");
+        long hits = users.getHitCount();
+        assertEquals(user.getEmail(), userRepository.findById(user.getId()).orElseThrow().getEmail());
+        userRepository.findById(user.getId()).orElseThrow();
+        assertEquals(hits + 2, users.getHitCount());
+    }
+
+    @Test
+    void updateRefreshesSecondLevelCache() {
+        Item found = itemRepository.findById(item.getId()).orElseThrow();
+        found.setName("item2");
+        itemRepository.save(found);
+        long misses = regionStatistics("items").getMissCount();
+        assertEquals("item2", itemRepository.findById(item.getId()).orElseThrow().getName());
+        assertEquals(misses, regionStatistics("items").getMissCount());
+    }
+
+    private CacheRegionStatistics regionStatistics(String region) {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics()
+                .getDomainDataRegionStatistics(region);
+    }
+}